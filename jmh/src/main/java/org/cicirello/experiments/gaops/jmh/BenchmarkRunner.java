@@ -0,0 +1,64 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks, writing the results in JSON format. Any command line arguments are
+ * passed through to JMH (e.g., a regular expression to select a subset of the benchmarks, or
+ * <code>-p n=1024</code> to restrict a parameter sweep). Results are written to the file
+ * <code>jmh-results.json</code> unless a different file is specified with the JMH <code>-rff
+ * </code> option. The benchmarks always run with JMH's GC profiler, so the results include the
+ * bytes allocated per operation and the garbage collections of each benchmark.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BenchmarkRunner {
+
+  /** Default name of the JSON results file. */
+  private static final String RESULTS_FILE = "jmh-results.json";
+
+  /**
+   * Runs the benchmarks.
+   *
+   * @param args command line arguments, which are passed through to JMH
+   * @throws CommandLineOptionException if the command line arguments are invalid
+   * @throws RunnerException if JMH fails to run the benchmarks
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    Options options =
+        new OptionsBuilder()
+            .parent(cmd)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(cmd.getResultFormat().orElse(ResultFormatType.JSON))
+            .result(cmd.getResult().orElse(RESULTS_FILE))
+            .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.cicirello.experiments.gaops.BitmaskGenerationExperiment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the alternatives for generating a random bit mask of a specified length and
+ * with a specified probability of a 1-bit, from {@link BitmaskGenerationExperiment}, with the bit
+ * mask stored in either 32-bit or 64-bit words. Each benchmark method runs in its own forked JVM,
+ * so the variants never share JIT profiles.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class BitmaskBenchmark {
+
+  /** Length of the bit mask. */
+  @Param({"16", "32", "64", "128", "256", "512", "1024", "16384", "262144", "1048576"})
+  public int n;
+
+  /** Probability of a 1-bit. */
+  @Param({"0.0009765625", "0.0078125", "0.0625", "0.125", "0.25", "0.5", "0.625", "0.75", "0.875"})
+  public double u;
+
+  /**
+   * Benchmarks the simple bit mask generation.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void simple(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskSimple(n, u));
+  }
+
+  /**
+   * Benchmarks the optimized bit mask generation.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void optimized(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskOptimized(n, u));
+  }
+
+  /**
+   * Benchmarks the simple bit mask generation with 64-bit words.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void simple64(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskSimple64(n, u));
+  }
+
+  /**
+   * Benchmarks the optimized bit mask generation with 64-bit words.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void optimized64(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskOptimized64(n, u));
+  }
+
+  /**
+   * Benchmarks the bit mask generation with geometrically distributed gaps between 1-bits.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void geometric(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskGeometric(n, u));
+  }
+
+  /**
+   * Benchmarks the bit mask generation 32 bits at a time for dyadic u.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void dyadic(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskDyadic(n, u));
+  }
+
+  /**
+   * Benchmarks the bit mask generation with a dyadic approximation of u and a correction step.
+   *
+   * @param bh sink for the generated mask
+   */
+  @Benchmark
+  public void dyadicHybrid(Blackhole bh) {
+    bh.consume(BitmaskGenerationExperiment.bitMaskDyadicHybrid(n, u));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.cicirello.experiments.gaops.CrossoverExperiment;
+import org.cicirello.search.operators.bits.UniformCrossover;
+import org.cicirello.search.representations.BitVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the two alternative uniform crossover implementations from {@link
+ * CrossoverExperiment}. Each benchmark method runs in its own forked JVM, so the simple and
+ * optimized variants never share JIT profiles.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class CrossoverBenchmark {
+
+  /** Length of the BitVectors. */
+  @Param({"16", "32", "64", "128", "256", "512", "1024"})
+  public int n;
+
+  /** Per-bit probability of exchanging each bit between the parents. */
+  @Param({"0.1", "0.2", "0.3", "0.4", "0.5"})
+  public double u;
+
+  private BitVector bits1;
+  private BitVector bits2;
+  private CrossoverExperiment.SimpleUniformCrossover simple;
+  private UniformCrossover optimized;
+
+  /** Constructs the operators and the parent BitVectors. */
+  @Setup
+  public void setup() {
+    bits1 = new BitVector(n, true);
+    bits2 = new BitVector(n, true);
+    simple = new CrossoverExperiment.SimpleUniformCrossover(u);
+    optimized = new UniformCrossover(u);
+  }
+
+  /**
+   * Benchmarks the simple uniform crossover.
+   *
+   * @param bh sink for the children
+   */
+  @Benchmark
+  public void simple(Blackhole bh) {
+    simple.cross(bits1, bits2);
+    bh.consume(bits1.get32(0));
+    bh.consume(bits2.get32(0));
+  }
+
+  /**
+   * Benchmarks the optimized uniform crossover.
+   *
+   * @param bh sink for the children
+   */
+  @Benchmark
+  public void optimized(Blackhole bh) {
+    optimized.cross(bits1, bits2);
+    bh.consume(bits1.get32(0));
+    bh.consume(bits2.get32(0));
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.cicirello.experiments.gaops.MutationExperiment;
+import org.cicirello.search.operators.bits.BitFlipMutation;
+import org.cicirello.search.representations.BitVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the alternative bit-flip mutation implementations from {@link
+ * MutationExperiment}. Each benchmark method runs in its own forked JVM, so the variants never
+ * share JIT profiles.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class MutationBenchmark {
+
+  /** Length of the BitVector. */
+  @Param({"16", "32", "64", "128", "256", "512", "1024"})
+  public int n;
+
+  /** Mutation rate. */
+  @Param({"0.0009765625", "0.0078125", "0.0625", "0.125", "0.25"})
+  public double m;
+
+  private BitVector bits;
+  private MutationExperiment.SimpleBitFlipMutation simple;
+  private BitFlipMutation optimized;
+  private MutationExperiment.GeometricBitFlipMutation geometric;
+
+  /** Constructs the operators and the BitVector that is mutated. */
+  @Setup
+  public void setup() {
+    bits = new BitVector(n);
+    simple = new MutationExperiment.SimpleBitFlipMutation(m);
+    optimized = new BitFlipMutation(m);
+    geometric = new MutationExperiment.GeometricBitFlipMutation(m);
+  }
+
+  /**
+   * Benchmarks the simple bit-flip mutation.
+   *
+   * @param bh sink for the mutated BitVector
+   */
+  @Benchmark
+  public void simple(Blackhole bh) {
+    simple.mutate(bits);
+    bh.consume(bits.get32(0));
+  }
+
+  /**
+   * Benchmarks the optimized bit-flip mutation.
+   *
+   * @param bh sink for the mutated BitVector
+   */
+  @Benchmark
+  public void optimized(Blackhole bh) {
+    optimized.mutate(bits);
+    bh.consume(bits.get32(0));
+  }
+
+  /**
+   * Benchmarks the bit-flip mutation with geometrically distributed gaps between flipped bits.
+   *
+   * @param bh sink for the mutated BitVector
+   */
+  @Benchmark
+  public void geometric(Blackhole bh) {
+    geometric.mutate(bits);
+    bh.consume(bits.get32(0));
+  }
+}
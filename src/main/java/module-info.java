@@ -34,4 +34,5 @@ module org.cicirello.optimize_ga_operators {
   requires org.cicirello.rho_mu;
   requires org.cicirello.core;
   requires java.management;
+  requires jdk.management;
 }
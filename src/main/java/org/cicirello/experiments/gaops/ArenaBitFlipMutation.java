@@ -0,0 +1,80 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomVariates;
+
+/**
+ * Bit-flip mutation for members of a {@link BitPopulation}, such as a {@link PopulationArena} or an
+ * {@link OffHeapPopulation}. The number of bits to flip is drawn from the binomial distribution,
+ * and the bits are chosen with a partial Fisher-Yates shuffle of a reusable pool of indexes, so a
+ * mutation allocates no memory after the first.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class ArenaBitFlipMutation {
+
+  private final double m;
+  private int[] pool;
+
+  /**
+   * Constructs an ArenaBitFlipMutation operator with a specified mutation rate.
+   *
+   * @param m The mutation rate, which is the probability of flipping any individual bit.
+   * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+   */
+  public ArenaBitFlipMutation(double m) {
+    if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+    this.m = m;
+  }
+
+  /**
+   * Mutates a member of a population.
+   *
+   * @param population the population
+   * @param member the index of the member to mutate
+   */
+  public void mutate(BitPopulation<?> population, int member) {
+    int n = population.length();
+    if (pool == null || pool.length != n) {
+      pool = BitmaskGenerationExperiment.indexPool(n);
+    }
+    RandomGenerator r = RandomSource.current();
+    int k = RandomVariates.nextBinomial(n, m, r);
+    for (int j = 0; j < k; j++) {
+      int swap = r.nextInt(j, n);
+      int index = pool[swap];
+      pool[swap] = pool[j];
+      pool[j] = index;
+      population.flip(member, index);
+    }
+  }
+
+  /**
+   * Generates a functionally identical copy of this operator, for use by another thread.
+   *
+   * @return a functionally identical copy
+   */
+  public ArenaBitFlipMutation split() {
+    // each instance needs its own pool
+    return new ArenaBitFlipMutation(m);
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A crossover operator for members of a {@link BitPopulation}, such as a {@link PopulationArena} or
+ * an {@link OffHeapPopulation}, along with versions of uniform, single-point, and two-point
+ * crossover that work on the words of the population directly.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public interface ArenaCrossover {
+
+  /**
+   * Crosses two members of a population, replacing the parents with the children.
+   *
+   * @param population the population
+   * @param member1 the index of the first parent
+   * @param member2 the index of the second parent
+   */
+  void cross(BitPopulation<?> population, int member1, int member2);
+
+  /**
+   * Generates a functionally identical copy of this operator, for use by another thread.
+   *
+   * @return a functionally identical copy
+   */
+  ArenaCrossover split();
+
+  /**
+   * Uniform crossover, where the mask is generated with the binomial distribution into a reusable
+   * buffer, and the bits are exchanged a word at a time.
+   */
+  final class Uniform implements ArenaCrossover {
+
+    private final double u;
+    private int[] bits;
+    private int[] pool;
+
+    /**
+     * Constructs a uniform crossover operator.
+     *
+     * @param u The per-bit probability of exchanging each bit between the parents in forming the
+     *     children.
+     */
+    public Uniform(double u) {
+      this.u = u <= 0.0 ? 0.0 : (u >= 1.0 ? 1.0 : u);
+    }
+
+    @Override
+    public void cross(BitPopulation<?> population, int member1, int member2) {
+      int n = population.length();
+      if (pool == null || pool.length != n) {
+        pool = BitmaskGenerationExperiment.indexPool(n);
+        bits = new int[(n + 31) >> 5];
+      }
+      population.exchangeBits(
+          member1, member2, BitmaskGenerationExperiment.bitMaskOptimized(n, u, bits, pool));
+    }
+
+    @Override
+    public Uniform split() {
+      // each instance needs its own buffers
+      return new Uniform(u);
+    }
+  }
+
+  /**
+   * Single-point crossover, which exchanges all bits before a random cross point, a word at a
+   * time. Requires bit strings of length at least 2.
+   */
+  final class SinglePoint implements ArenaCrossover {
+
+    /** Constructs a single-point crossover operator. */
+    public SinglePoint() {}
+
+    @Override
+    public void cross(BitPopulation<?> population, int member1, int member2) {
+      int point = RandomSource.current().nextInt(1, population.length());
+      population.exchangeBits(member1, member2, 0, point - 1);
+    }
+
+    @Override
+    public SinglePoint split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Two-point crossover, which exchanges all bits between two distinct random cross points, a word
+   * at a time. Requires bit strings of length at least 3.
+   */
+  final class TwoPoint implements ArenaCrossover {
+
+    /** Constructs a two-point crossover operator. */
+    public TwoPoint() {}
+
+    @Override
+    public void cross(BitPopulation<?> population, int member1, int member2) {
+      int n = population.length();
+      RandomGenerator r = RandomSource.current();
+      int i = r.nextInt(1, n);
+      int j = r.nextInt(1, n - 1);
+      if (j >= i) {
+        j++;
+      } else {
+        int temp = i;
+        i = j;
+        j = temp;
+      }
+      population.exchangeBits(member1, member2, i, j - 1);
+    }
+
+    @Override
+    public TwoPoint split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+}
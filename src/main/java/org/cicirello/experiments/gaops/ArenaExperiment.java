@@ -0,0 +1,347 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.function.Supplier;
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.ProgressTracker;
+import org.cicirello.search.evo.GenerationalEvolutionaryAlgorithm;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.bits.BitFlipMutation;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+import org.cicirello.search.operators.bits.SinglePointCrossover;
+import org.cicirello.search.operators.bits.TwoPointCrossover;
+import org.cicirello.search.operators.bits.UniformCrossover;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Experiment comparing CPU time, memory allocated, and memory footprint of two alternative GAs for
+ * OneMax that differ in how the population is represented: Chips-n-Salsa's
+ * GenerationalEvolutionaryAlgorithm, where each member of the population is a separate BitVector
+ * object with its own backing array; vs a GA whose populations are stored in a pair of contiguous
+ * arenas (see {@link ArenaGA}). Both use the binomial-optimized generation loop and bit-flip
+ * mutation, and each of uniform, single-point, and two-point crossover. The library's operators
+ * sample differently than those of the arena, and allocate on every call, so the experiment also
+ * runs GenerationalEvolutionaryAlgorithm with BitVector operators that sample exactly as the
+ * arena's operators do and reuse their buffers: {@link DeltaBitFlipMutation}, {@link
+ * DeltaUniformCrossover}, and the 32-bit block crossovers of {@link PointCrossoverExperiment}. The
+ * difference between that version and the arena is due to the population representation alone. The
+ * number of generations is scaled inversely with population size so that each trial processes the
+ * same number of members.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class ArenaExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of members processed (population size times generations) for each trial. */
+  private static final int MEMBERS_PER_TRIAL = 100000;
+
+  /** Length of the bit strings. */
+  private static final int BIT_LENGTH = 1024;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    GAExperiment.OneMaxFitness fitness = new GAExperiment.OneMaxFitness();
+    ArenaGA.Fitness arenaFitness = (arena, member) -> arena.countOnes(member) + 1;
+    final double MUTATION_RATE = 1.0 / BIT_LENGTH;
+    final double U = 0.49;
+    int[] populationSizes = {100, 1000, 10000};
+    double[] rates = {0.05, 0.45, 0.85};
+    String[] names = {"Uniform U=0.49", "Single-Point", "Two-Point"};
+    ArrayList<CrossoverOperator<BitVector>> crossovers =
+        new ArrayList<CrossoverOperator<BitVector>>();
+    crossovers.add(new UniformCrossover(U));
+    crossovers.add(new SinglePointCrossover());
+    crossovers.add(new TwoPointCrossover());
+    // BitVector operators that sample the same way as the arena's operators
+    ArrayList<CrossoverOperator<BitVector>> matchedCrossovers =
+        new ArrayList<CrossoverOperator<BitVector>>();
+    matchedCrossovers.add(new DeltaUniformCrossover(U));
+    matchedCrossovers.add(new PointCrossoverExperiment.BlockSinglePointCrossover32());
+    matchedCrossovers.add(new PointCrossoverExperiment.BlockTwoPointCrossover32());
+    ArenaCrossover[] arenaCrossovers = {
+      new ArenaCrossover.Uniform(U), new ArenaCrossover.SinglePoint(), new ArenaCrossover.TwoPoint()
+    };
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (int populationSize : populationSizes) {
+      for (int x = 0; x < crossovers.size(); x++) {
+        for (double c : rates) {
+          GenerationalEvolutionaryAlgorithm<BitVector> objects =
+              new GenerationalEvolutionaryAlgorithm<BitVector>(
+                  populationSize,
+                  new BitFlipMutation(MUTATION_RATE),
+                  1,
+                  crossovers.get(x).split(),
+                  c,
+                  new BitVectorInitializer(BIT_LENGTH),
+                  fitness,
+                  new StochasticUniversalSampling());
+          GenerationalEvolutionaryAlgorithm<BitVector> matched =
+              new GenerationalEvolutionaryAlgorithm<BitVector>(
+                  populationSize,
+                  new DeltaBitFlipMutation(MUTATION_RATE),
+                  1,
+                  matchedCrossovers.get(x).split(),
+                  c,
+                  new BitVectorInitializer(BIT_LENGTH),
+                  fitness,
+                  new StochasticUniversalSampling());
+          ArenaGA arena =
+              new ArenaGA(
+                  populationSize,
+                  BIT_LENGTH,
+                  new ArenaBitFlipMutation(MUTATION_RATE),
+                  arenaCrossovers[x].split(),
+                  c,
+                  arenaFitness,
+                  new StochasticUniversalSampling());
+          int generations = MEMBERS_PER_TRIAL / populationSize;
+          useToPreventOptimizingAway += objects.optimize(generations).getCost();
+          useToPreventOptimizingAway += matched.optimize(generations).getCost();
+          useToPreventOptimizingAway += arena.optimize(generations).countOnes();
+        }
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.println("Memory Footprint (KB) of the GA After its First Generation");
+    System.out.printf("%5s\t%12s\t%12s%n", "P", "objects", "arena");
+    for (int populationSize : populationSizes) {
+      double objectsKB =
+          footprint(
+                  () -> {
+                    GenerationalEvolutionaryAlgorithm<BitVector> objects =
+                        new GenerationalEvolutionaryAlgorithm<BitVector>(
+                            populationSize,
+                            new BitFlipMutation(MUTATION_RATE),
+                            1,
+                            new UniformCrossover(U),
+                            0.85,
+                            new BitVectorInitializer(BIT_LENGTH),
+                            fitness,
+                            new StochasticUniversalSampling());
+                    objects.optimize(1);
+                    return objects;
+                  })
+              / 1024.0;
+      double arenaKB =
+          footprint(
+                  () -> {
+                    ArenaGA arena =
+                        new ArenaGA(
+                            populationSize,
+                            BIT_LENGTH,
+                            new ArenaBitFlipMutation(MUTATION_RATE),
+                            new ArenaCrossover.Uniform(U),
+                            0.85,
+                            arenaFitness,
+                            new StochasticUniversalSampling());
+                    arena.optimize(1);
+                    return arena;
+                  })
+              / 1024.0;
+      System.out.printf("%5d\t%12.1f\t%12.1f%n", populationSize, objectsKB, arenaKB);
+    }
+    System.out.println();
+
+    for (int x = 0; x < crossovers.size(); x++) {
+      final int xover = x;
+      System.out.printf("%s%n", names[x]);
+      System.out.printf(
+          "%5s\t%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "P",
+          "c",
+          "objects",
+          "arena",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "matched",
+          "%less-match",
+          "t-match",
+          "dof-match",
+          "p-match",
+          "objects-MB",
+          "matched-MB",
+          "arena-MB",
+          "objects-gc",
+          "matched-gc",
+          "arena-gc",
+          "objects-gcms",
+          "matched-gcms",
+          "arena-gcms");
+      for (int populationSize : populationSizes) {
+        int generations = MEMBERS_PER_TRIAL / populationSize;
+        for (double c : rates) {
+          ParallelTrialRunner.Results results =
+              runner.run(
+                  TRIALS,
+                  () -> {
+                    // each thread needs its own GAs, since operators are not thread-safe
+                    GenerationalEvolutionaryAlgorithm<BitVector> objects =
+                        new GenerationalEvolutionaryAlgorithm<BitVector>(
+                            populationSize,
+                            new BitFlipMutation(MUTATION_RATE),
+                            1,
+                            crossovers.get(xover).split(),
+                            c,
+                            new BitVectorInitializer(BIT_LENGTH),
+                            fitness,
+                            new StochasticUniversalSampling());
+                    GenerationalEvolutionaryAlgorithm<BitVector> matched =
+                        new GenerationalEvolutionaryAlgorithm<BitVector>(
+                            populationSize,
+                            new DeltaBitFlipMutation(MUTATION_RATE),
+                            1,
+                            matchedCrossovers.get(xover).split(),
+                            c,
+                            new BitVectorInitializer(BIT_LENGTH),
+                            fitness,
+                            new StochasticUniversalSampling());
+                    ArenaGA arena =
+                        new ArenaGA(
+                            populationSize,
+                            BIT_LENGTH,
+                            new ArenaBitFlipMutation(MUTATION_RATE),
+                            arenaCrossovers[xover].split(),
+                            c,
+                            arenaFitness,
+                            new StochasticUniversalSampling());
+                    return new ParallelTrialRunner.Trial[] {
+                      () -> {
+                        int cost = objects.optimize(generations).getCost();
+                        objects.setProgressTracker(new ProgressTracker<BitVector>());
+                        return cost;
+                      },
+                      () -> arena.optimize(generations).countOnes(),
+                      () -> {
+                        int cost = matched.optimize(generations).getCost();
+                        matched.setProgressTracker(new ProgressTracker<BitVector>());
+                        return cost;
+                      }
+                    };
+                  });
+          double[][] ms = results.times();
+          double[][] bytes = results.bytes();
+          useToPreventOptimizingAway += results.sum();
+
+          Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+          double t = tTest[0].doubleValue();
+          int dof = tTest[1].intValue();
+          double p = Statistics.p(t, dof);
+
+          Number[] tTestMatched = Statistics.tTestWelch(ms[2], ms[1]);
+          double tMatched = tTestMatched[0].doubleValue();
+          int dofMatched = tTestMatched[1].intValue();
+          double pMatched = Statistics.p(tMatched, dofMatched);
+
+          // times are converted to seconds during output
+          double timeObjectsSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+          double timeArenaSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+          double timeMatchedSeconds = Statistics.mean(ms[2]) / 1000000000.0;
+          double percentLessTime =
+              100 * ((timeObjectsSeconds - timeArenaSeconds) / timeObjectsSeconds);
+          double percentLessMatched =
+              100 * ((timeMatchedSeconds - timeArenaSeconds) / timeMatchedSeconds);
+
+          System.out.printf(
+              "%5d\t%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+              populationSize,
+              c,
+              timeObjectsSeconds,
+              timeArenaSeconds,
+              percentLessTime,
+              t,
+              dof,
+              p,
+              timeMatchedSeconds,
+              percentLessMatched,
+              tMatched,
+              dofMatched,
+              pMatched,
+              Statistics.mean(bytes[0]) / 1000000.0,
+              Statistics.mean(bytes[2]) / 1000000.0,
+              Statistics.mean(bytes[1]) / 1000000.0,
+              Statistics.mean(results.gcCounts()[0]),
+              Statistics.mean(results.gcCounts()[2]),
+              Statistics.mean(results.gcCounts()[1]),
+              Statistics.mean(results.gcTimes()[0]),
+              Statistics.mean(results.gcTimes()[2]),
+              Statistics.mean(results.gcTimes()[1]));
+        }
+      }
+      System.out.println();
+    }
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies BitVector objects version is faster.");
+    System.out.println("2) Positive t value implies arena version is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The matched version is the BitVector objects version with operators");
+    System.out.println("   that sample like the arena's operators and reuse their buffers. The");
+    System.out.println("   -match columns compare it to the arena version: positive t-match");
+    System.out.println("   implies arena version is faster, due to the representation alone.");
+    System.out.println("5) The -MB columns are the memory allocated per trial.");
+    System.out.println("6) Footprints are measured from the heap after garbage collection.");
+    ParallelTrialRunner.printGcLegend(7);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /**
+   * Estimates the number of bytes of the heap retained by the object created by a supplier, by
+   * comparing heap usage after garbage collection before and after creating it.
+   *
+   * @param create creates the object
+   * @return the estimated number of bytes retained by the object
+   */
+  static long footprint(Supplier<Object> create) {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    System.gc();
+    long before = memory.getHeapMemoryUsage().getUsed();
+    Object created = create.get();
+    System.gc();
+    long after = memory.getHeapMemoryUsage().getUsed();
+    Reference.reachabilityFence(created);
+    return after - before;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.search.evo.SelectionOperator;
+
+/**
+ * A generational genetic algorithm whose populations are stored in a pair of {@link
+ * PopulationArena} objects, one for the current population and one for the next. Selection copies
+ * the selected members of the current arena into the next arena, after which the arenas swap
+ * roles, so a generation allocates no memory. The generation logic is that of {@link
+ * BitPopulationGA}, which is otherwise the same as that of {@link GenerationalBitVectorGA}: the
+ * number of pairs of parents to cross is drawn from the binomial distribution, and every member of
+ * the population is then passed to the mutation operator.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class ArenaGA extends BitPopulationGA<PopulationArena> {
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param bitLength the length of the bit strings
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param f the fitness function
+   * @param selection the selection operator
+   */
+  public ArenaGA(
+      int populationSize,
+      int bitLength,
+      ArenaBitFlipMutation mutation,
+      ArenaCrossover crossover,
+      double crossoverRate,
+      Fitness f,
+      SelectionOperator selection) {
+    super(
+        new PopulationArena(populationSize, bitLength),
+        new PopulationArena(populationSize, bitLength),
+        new PopulationArena(1, bitLength),
+        mutation,
+        crossover,
+        crossoverRate,
+        f,
+        selection);
+  }
+
+  /** A fitness function for members of a {@link PopulationArena}. */
+  @FunctionalInterface
+  public interface Fitness extends BitPopulationGA.Fitness<PopulationArena> {}
+}
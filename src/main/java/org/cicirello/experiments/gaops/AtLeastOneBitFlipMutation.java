@@ -0,0 +1,95 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Bit-flip mutation conditioned on flipping at least one bit. Each call flips bits with the
+ * distribution of bit-flip mutation with mutation rate m, given that at least one bit is flipped.
+ * This is the mutation for a GA that first decides which members of the population are mutated at
+ * all, such as {@link MutationSkippingGA}, which then need not call the mutation operator for the
+ * others. The index of the first flipped bit is drawn from the geometric distribution truncated to
+ * the length of the BitVector, and the rest of the bits to flip are found by jumping between them
+ * with geometrically distributed gaps, as in {@link MutationExperiment.GeometricBitFlipMutation}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class AtLeastOneBitFlipMutation implements MutationOperator<BitVector> {
+
+  private final double m;
+  private final double lnOneMinusM;
+
+  /**
+   * Constructs an AtLeastOneBitFlipMutation operator with a specified mutation rate.
+   *
+   * @param m The mutation rate, which is the probability of flipping any individual bit before
+   *     conditioning on flipping at least one.
+   * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+   */
+  public AtLeastOneBitFlipMutation(double m) {
+    if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+    this.m = m;
+    lnOneMinusM = Math.log1p(-m);
+  }
+
+  /**
+   * Computes the probability that bit-flip mutation flips at least one bit, which is 1 -
+   * (1-m)<sup>n</sup>.
+   *
+   * @param n the length of the BitVector
+   * @param m the mutation rate
+   * @return the probability that at least one of the n bits is flipped
+   */
+  public static double probabilityOfAnyFlip(int n, double m) {
+    return -Math.expm1(n * Math.log1p(-m));
+  }
+
+  @Override
+  public void mutate(BitVector c) {
+    int numBits = c.length();
+    RandomGenerator r = RandomSource.current();
+    // inverts the CDF of the geometric distribution truncated to [0, numBits - 1]
+    double anyFlip = probabilityOfAnyFlip(numBits, m);
+    int index = (int) (Math.log1p(-r.nextDouble() * anyFlip) / lnOneMinusM);
+    if (index >= numBits) {
+      // only possible due to rounding
+      index = numBits - 1;
+    }
+    c.flip(index);
+    while (true) {
+      // number of bits skipped before the next bit to flip
+      double gap = Math.log(1.0 - r.nextDouble()) / lnOneMinusM;
+      if (gap >= numBits - 1 - index) {
+        return;
+      }
+      index += 1 + (int) gap;
+      c.flip(index);
+    }
+  }
+
+  @Override
+  public AtLeastOneBitFlipMutation split() {
+    // Maintains no mutable state, so just return this.
+    return this;
+  }
+}
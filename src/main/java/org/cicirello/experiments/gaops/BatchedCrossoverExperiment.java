@@ -0,0 +1,230 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.operators.bits.BitFlipMutation;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+import org.cicirello.search.operators.bits.UniformCrossover;
+
+/**
+ * Experiment comparing CPU time of a generational GA for OneMax that crosses each pair of parents
+ * with its own call of uniform crossover against one that crosses all of the pairs of a generation
+ * in one batch ({@link BatchedCrossoverGA}). The per-pair calls use Chips-n-Salsa's
+ * UniformCrossover, and also {@link BatchedUniformCrossover} itself, one pair at a time, which
+ * draws from the same precomputed binomial distribution, shuffles the same reusable pool of
+ * indexes, and writes into the same reusable buffer as the batch does, so that the benefit of
+ * batching can be separated from that of the operator's sampling and reuse. All other stages of the
+ * generation are the same in all of the GAs ({@link GenerationalBitVectorGA}). The number of
+ * generations is scaled inversely with population size so that each trial processes the same
+ * number of members.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BatchedCrossoverExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of members processed (population size times generations) for each trial. */
+  private static final int MEMBERS_PER_TRIAL = 100000;
+
+  /** Length of the bit strings. */
+  private static final int BIT_LENGTH = 1024;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    GAExperiment.OneMaxFitness fitness = new GAExperiment.OneMaxFitness();
+    BitVectorInitializer initializer = new BitVectorInitializer(BIT_LENGTH);
+    final double MUTATION_RATE = 1.0 / BIT_LENGTH;
+    double[] U_VALUES = {0.1, 0.49};
+    int[] populationSizes = {100, 1000, 10000};
+    double[] rates = {0.05, 0.45, 0.85};
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (double u : U_VALUES) {
+      for (int populationSize : populationSizes) {
+        for (double c : rates) {
+          GenerationalBitVectorGA[] gas =
+              createGAs(populationSize, u, c, MUTATION_RATE, initializer, fitness);
+          int generations = MEMBERS_PER_TRIAL / populationSize;
+          for (GenerationalBitVectorGA ga : gas) {
+            useToPreventOptimizingAway += ga.optimize(generations).countOnes();
+          }
+        }
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (double u : U_VALUES) {
+      System.out.printf("Uniform Crossover Parameter U=%3.2f%n", u);
+      System.out.printf(
+          "%5s\t%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "P",
+          "c",
+          "per-pair",
+          "batched",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "unbatched",
+          "t-unb",
+          "dof-unb",
+          "p-unb",
+          "per-pair-MB",
+          "batched-MB",
+          "unb-MB",
+          "per-pair-gc",
+          "batched-gc",
+          "unb-gc",
+          "per-pair-gcms",
+          "batched-gcms",
+          "unb-gcms");
+      for (int populationSize : populationSizes) {
+        int generations = MEMBERS_PER_TRIAL / populationSize;
+        for (double c : rates) {
+          ParallelTrialRunner.Results results =
+              runner.run(
+                  TRIALS,
+                  () -> {
+                    // each thread needs its own GAs, since operators are not thread-safe
+                    GenerationalBitVectorGA[] gas =
+                        createGAs(populationSize, u, c, MUTATION_RATE, initializer, fitness);
+                    return new ParallelTrialRunner.Trial[] {
+                      () -> gas[0].optimize(generations).countOnes(),
+                      () -> gas[1].optimize(generations).countOnes(),
+                      () -> gas[2].optimize(generations).countOnes()
+                    };
+                  });
+          double[][] ms = results.times();
+          double[][] bytes = results.bytes();
+          useToPreventOptimizingAway += results.sum();
+
+          Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+          double t = tTest[0].doubleValue();
+          int dof = tTest[1].intValue();
+          double p = Statistics.p(t, dof);
+
+          Number[] tTestUnbatched = Statistics.tTestWelch(ms[2], ms[1]);
+          double tUnbatched = tTestUnbatched[0].doubleValue();
+          int dofUnbatched = tTestUnbatched[1].intValue();
+          double pUnbatched = Statistics.p(tUnbatched, dofUnbatched);
+
+          // times are converted to seconds during output
+          double timePerPairSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+          double timeBatchedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+          double timeUnbatchedSeconds = Statistics.mean(ms[2]) / 1000000000.0;
+          double percentLessTime =
+              100 * ((timePerPairSeconds - timeBatchedSeconds) / timePerPairSeconds);
+
+          System.out.printf(
+              "%5d\t%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+              populationSize,
+              c,
+              timePerPairSeconds,
+              timeBatchedSeconds,
+              percentLessTime,
+              t,
+              dof,
+              p,
+              timeUnbatchedSeconds,
+              tUnbatched,
+              dofUnbatched,
+              pUnbatched,
+              Statistics.mean(bytes[0]) / 1000000.0,
+              Statistics.mean(bytes[1]) / 1000000.0,
+              Statistics.mean(bytes[2]) / 1000000.0,
+              Statistics.mean(results.gcCounts()[0]),
+              Statistics.mean(results.gcCounts()[1]),
+              Statistics.mean(results.gcCounts()[2]),
+              Statistics.mean(results.gcTimes()[0]),
+              Statistics.mean(results.gcTimes()[1]),
+              Statistics.mean(results.gcTimes()[2]));
+        }
+      }
+      System.out.println();
+    }
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies per-pair version is faster.");
+    System.out.println("2) Positive t value implies batched version is faster.");
+    System.out.println("3) The p columns are, well, the p values.");
+    System.out.println("4) The unbatched version calls the batched version's operator once per");
+    System.out.println("   pair, with the same sampling and reused buffers. Positive t-unb");
+    System.out.println("   implies batched version is faster.");
+    System.out.println("5) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /*
+   * Creates the GAs with per-pair crossover, batched crossover, and per-pair calls of the batched
+   * crossover operator, in that order.
+   */
+  private static GenerationalBitVectorGA[] createGAs(
+      int populationSize,
+      double u,
+      double c,
+      double mutationRate,
+      BitVectorInitializer initializer,
+      GAExperiment.OneMaxFitness fitness) {
+    return new GenerationalBitVectorGA[] {
+      new GenerationalBitVectorGA(
+          populationSize,
+          new BitFlipMutation(mutationRate),
+          new UniformCrossover(u),
+          c,
+          initializer,
+          fitness,
+          new StochasticUniversalSampling()),
+      new BatchedCrossoverGA(
+          populationSize,
+          new BitFlipMutation(mutationRate),
+          new BatchedUniformCrossover(u),
+          c,
+          initializer,
+          fitness,
+          new StochasticUniversalSampling()),
+      new GenerationalBitVectorGA(
+          populationSize,
+          new BitFlipMutation(mutationRate),
+          new BatchedUniformCrossover(u),
+          c,
+          initializer,
+          fitness,
+          new StochasticUniversalSampling())
+    };
+  }
+}
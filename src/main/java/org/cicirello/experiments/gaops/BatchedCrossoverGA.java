@@ -0,0 +1,72 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm for BitVectors that crosses all of the pairs of parents of a
+ * generation in one batch with a {@link BatchedUniformCrossover}, rather than with one call of the
+ * crossover operator per pair. Every stage of a generation is otherwise identical to that of
+ * {@link GenerationalBitVectorGA}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BatchedCrossoverGA extends GenerationalBitVectorGA {
+
+  private final BatchedUniformCrossover batchedCrossover;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param initializer initializes the population
+   * @param f the fitness function
+   * @param selection the selection operator
+   */
+  public BatchedCrossoverGA(
+      int populationSize,
+      MutationOperator<BitVector> mutation,
+      BatchedUniformCrossover crossover,
+      double crossoverRate,
+      Initializer<BitVector> initializer,
+      FitnessFunction.Integer<BitVector> f,
+      SelectionOperator selection) {
+    super(populationSize, mutation, crossover, crossoverRate, initializer, f, selection);
+    batchedCrossover = crossover;
+  }
+
+  /**
+   * Crosses consecutive pairs of members of the population, all in one batch.
+   *
+   * @param count the number of members of the population to cross, which is even
+   */
+  @Override
+  protected void crossover(int count) {
+    batchedCrossover.crossAll(population, count);
+  }
+}
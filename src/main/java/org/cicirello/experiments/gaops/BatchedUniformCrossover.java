@@ -0,0 +1,146 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Uniform crossover that can cross all of the pairs of a generation in one batch (see {@link
+ * #crossAll}). A batch first makes one pass of random draws for all of the pairs, drawing the
+ * number of bits to exchange from a precomputed {@link BinomialSampler} and choosing the bits with
+ * a partial Fisher-Yates shuffle of a reusable pool of indexes, and writes the mask of each pair
+ * into a scratch arena shared by all pairs. It then exchanges the bits of all of the pairs in one
+ * tight loop over the arena. After the first batch, crossing allocates no memory.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class BatchedUniformCrossover implements CrossoverOperator<BitVector> {
+
+  private final double u;
+  private BinomialSampler binomial;
+  private int[] pool;
+  private int[] masks;
+
+  /**
+   * Constructs a uniform crossover operator.
+   *
+   * @param u The per-bit probability of exchanging each bit between the parents in forming the
+   *     children.
+   */
+  public BatchedUniformCrossover(double u) {
+    this.u = u <= 0.0 ? 0.0 : (u >= 1.0 ? 1.0 : u);
+  }
+
+  @Override
+  public void cross(BitVector c1, BitVector c2) {
+    int n = c1.length();
+    ensureCapacity(n, 1);
+    int words = (n + 31) >> 5;
+    mask(n, words, 0, RandomSource.current());
+    exchange(c1, c2, words, 0);
+  }
+
+  /**
+   * Crosses consecutive pairs of the first count members of a population, which must all be
+   * BitVectors of the same length.
+   *
+   * @param population the population
+   * @param count the number of members to cross, which is even
+   */
+  public void crossAll(BitVector[] population, int count) {
+    int pairs = count >> 1;
+    if (pairs == 0) {
+      return;
+    }
+    int n = population[0].length();
+    // sized for the whole population, so that the arena is allocated only once
+    ensureCapacity(n, population.length >> 1);
+    int words = (n + 31) >> 5;
+    RandomGenerator r = RandomSource.current();
+    for (int pair = 0, offset = 0; pair < pairs; pair++, offset += words) {
+      mask(n, words, offset, r);
+    }
+    for (int pair = 0, offset = 0; pair < pairs; pair++, offset += words) {
+      exchange(population[pair << 1], population[(pair << 1) + 1], words, offset);
+    }
+  }
+
+  @Override
+  public BatchedUniformCrossover split() {
+    // each instance needs its own buffers
+    return new BatchedUniformCrossover(u);
+  }
+
+  /*
+   * Makes sure that the sampler and index pool are for BitVectors of length n, and that the arena
+   * holds at least the masks of the given number of pairs.
+   */
+  private void ensureCapacity(int n, int pairs) {
+    int words = (n + 31) >> 5;
+    if (binomial == null || binomial.n() != n) {
+      binomial = new BinomialSampler(n, u);
+      pool = BitmaskGenerationExperiment.indexPool(n);
+      masks = null;
+    }
+    if (masks == null || masks.length < pairs * words) {
+      masks = new int[pairs * words];
+    }
+  }
+
+  /*
+   * Generates a random mask of n bits into the arena, beginning at offset. If more than half of
+   * the bits are to be exchanged, the bits to leave unexchanged are sampled instead. The bits of
+   * the last word beyond n are left set in that case, which is harmless, since those bits of the
+   * BitVectors are always 0.
+   */
+  private void mask(int n, int words, int offset, RandomGenerator r) {
+    int k = binomial.next(r);
+    if (k > (n >> 1)) {
+      Arrays.fill(masks, offset, offset + words, 0xffffffff);
+      k = n - k;
+    } else {
+      Arrays.fill(masks, offset, offset + words, 0);
+    }
+    for (int j = 0; j < k; j++) {
+      int swap = r.nextInt(j, n);
+      int index = pool[swap];
+      pool[swap] = pool[j];
+      pool[j] = index;
+      masks[offset + (index >> 5)] ^= 1 << (index & 31);
+    }
+  }
+
+  /*
+   * Exchanges the bits of two BitVectors wherever the mask in the arena beginning at offset has
+   * 1-bits.
+   */
+  private void exchange(BitVector c1, BitVector c2, int words, int offset) {
+    for (int i = 0; i < words; i++) {
+      int w1 = c1.get32(i);
+      int w2 = c2.get32(i);
+      int exchange = (w1 ^ w2) & masks[offset + i];
+      c1.set32(i, w1 ^ exchange);
+      c2.set32(i, w2 ^ exchange);
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Generates random variates from a binomial distribution with fixed parameters n and p, by
+ * inversion of a cumulative distribution function (CDF) that is computed once by the constructor.
+ * Unlike RandomVariates.nextBinomial(n, p), which sets up the distribution anew on every call, each
+ * sample costs one random double, a lookup in a guide table, and on average about one comparison
+ * with the CDF. The table covers the values of the distribution from its mode outward until the
+ * probabilities fall below 10<sup>-17</sup> of the total, so its size grows with the standard
+ * deviation of the distribution, sqrt(n p (1-p)), rather than with n, and the probability of the
+ * truncated tails is smaller than the resolution of a random double.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class BinomialSampler {
+
+  /** Relative probability below which the tails of the distribution are truncated. */
+  private static final double EPSILON = 1E-17;
+
+  private final int n;
+  private final double p;
+  private final int first;
+  private final double[] cdf;
+  private final int[] guide;
+
+  /**
+   * Constructs a sampler of a binomial distribution.
+   *
+   * @param n the number of trials
+   * @param p the probability of success of each trial, where values of p outside the interval
+   *     [0.0, 1.0] are treated as 0.0 or 1.0
+   * @throws IllegalArgumentException if n is negative
+   */
+  public BinomialSampler(int n, double p) {
+    if (n < 0) throw new IllegalArgumentException("n must be non-negative");
+    this.n = n;
+    this.p = p <= 0.0 ? 0.0 : (p >= 1.0 ? 1.0 : p);
+    if (this.p == 0.0 || this.p == 1.0) {
+      first = this.p == 0.0 ? 0 : n;
+      cdf = new double[] {1.0};
+    } else {
+      // Weights relative to the mode, from the recurrence of the binomial probabilities, which
+      // avoids the underflow of (1-p)^n for large n.
+      int mode = (int) Math.min(n, Math.floor((n + 1) * this.p));
+      double odds = this.p / (1.0 - this.p);
+      int low = mode;
+      for (double w = 1.0; low > 0 && w >= EPSILON; low--) {
+        w *= low / ((n - low + 1) * odds);
+      }
+      int high = mode;
+      for (double w = 1.0; high < n && w >= EPSILON; high++) {
+        w *= (n - high) * odds / (high + 1);
+      }
+      first = low;
+      cdf = new double[high - low + 1];
+      cdf[mode - low] = 1.0;
+      for (int k = mode; k > low; k--) {
+        cdf[k - 1 - low] = cdf[k - low] * k / ((n - k + 1) * odds);
+      }
+      for (int k = mode; k < high; k++) {
+        cdf[k + 1 - low] = cdf[k - low] * (n - k) * odds / (k + 1);
+      }
+      // The weights are summed from each tail toward the mode, and the CDF above the mode is
+      // computed from the probability of the values above each value, since the rounding errors
+      // of a sum from the lower tail alone, near 1, would exceed the probabilities of much of the
+      // upper tail, leaving it out of reach of the random doubles.
+      int m = mode - low;
+      double lower = 0;
+      for (int i = 0; i < m; i++) {
+        lower += cdf[i];
+        cdf[i] = lower;
+      }
+      double upper = 0;
+      for (int i = cdf.length - 1; i >= m; i--) {
+        double w = cdf[i];
+        cdf[i] = upper;
+        upper += w;
+      }
+      double total = lower + upper;
+      for (int i = 0; i < m; i++) {
+        cdf[i] /= total;
+      }
+      for (int i = m; i < cdf.length; i++) {
+        cdf[i] = 1.0 - cdf[i] / total;
+      }
+    }
+    // guide[g] is the index of the first CDF entry that is at least g / guide.length
+    guide = new int[cdf.length];
+    for (int g = 0, i = 0; g < guide.length; g++) {
+      while (cdf[i] < (double) g / guide.length) {
+        i++;
+      }
+      guide[g] = i;
+    }
+  }
+
+  /**
+   * Generates a random variate from the binomial distribution.
+   *
+   * @param r the source of randomness
+   * @return a random number of successes, in the interval [0, n]
+   */
+  public int next(RandomGenerator r) {
+    double u = r.nextDouble();
+    int i = guide[(int) (u * guide.length)];
+    while (cdf[i] <= u) {
+      i++;
+    }
+    return first + i;
+  }
+
+  /**
+   * Gets the number of trials of the distribution.
+   *
+   * @return the number of trials
+   */
+  public int n() {
+    return n;
+  }
+
+  /**
+   * Gets the probability of success of each trial of the distribution.
+   *
+   * @return the probability of success
+   */
+  public double p() {
+    return p;
+  }
+}
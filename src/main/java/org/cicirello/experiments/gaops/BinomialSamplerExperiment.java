@@ -0,0 +1,275 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.operators.bits.BitFlipMutation;
+import org.cicirello.search.operators.bits.UniformCrossover;
+import org.cicirello.search.representations.BitVector;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment measuring how much of the CPU time of the optimized bit mask generation, bit-flip
+ * mutation, and uniform crossover is spent setting up the binomial distribution, which
+ * RandomVariates.nextBinomial(n, u) does anew on every call. For each bit length n and
+ * probability u, it times the optimized versions against versions that draw from a {@link
+ * BinomialSampler} precomputed for n and u ({@link BitmaskGenerationExperiment#bitMaskCached},
+ * {@link MutationExperiment.CachedBinomialBitFlipMutation}, and {@link
+ * CrossoverExperiment.CachedBinomialUniformCrossover}). It also times the binomial draws alone,
+ * with nextBinomial and with the precomputed sampler, and reports the difference as a percentage
+ * of the time of the optimized version, which is the share of the optimized version's time that
+ * the precomputed sampler eliminates.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BinomialSamplerExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of samples for each trial. Need multiple to ensure times are measurable. */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /** The operations that use the binomial distribution. */
+  private enum Operation {
+    MASK,
+    MUTATION,
+    CROSSOVER
+  }
+
+  /*
+   * Creates the setup function of the variants for one operation, bit length, and probability,
+   * where each variant performs samples calls: binomial draws with nextBinomial, binomial draws
+   * with a precomputed sampler, the optimized operation, and the operation with the precomputed
+   * sampler.
+   */
+  private static Supplier<ParallelTrialRunner.Trial[]> variants(
+      Operation operation, int n, double u, int samples) {
+    BinomialSampler binomial = new BinomialSampler(n, u);
+    return () -> {
+      ParallelTrialRunner.Trial drawBinomial =
+          () -> {
+            int sink = 0;
+            RandomGenerator r = RandomSource.current();
+            for (int k = 0; k < samples; k++) {
+              sink += RandomVariates.nextBinomial(n, u, r);
+            }
+            return sink;
+          };
+      ParallelTrialRunner.Trial drawCached =
+          () -> {
+            int sink = 0;
+            RandomGenerator r = RandomSource.current();
+            for (int k = 0; k < samples; k++) {
+              sink += binomial.next(r);
+            }
+            return sink;
+          };
+      switch (operation) {
+        case MASK:
+          return new ParallelTrialRunner.Trial[] {
+            drawBinomial,
+            drawCached,
+            () -> {
+              int sink = 0;
+              for (int k = 0; k < samples; k++) {
+                int[] maskOptimized = BitmaskGenerationExperiment.bitMaskOptimized(n, u);
+                sink += maskOptimized[k % maskOptimized.length];
+              }
+              return sink;
+            },
+            () -> {
+              int sink = 0;
+              for (int k = 0; k < samples; k++) {
+                int[] maskCached = BitmaskGenerationExperiment.bitMaskCached(binomial);
+                sink += maskCached[k % maskCached.length];
+              }
+              return sink;
+            }
+          };
+        case MUTATION:
+          {
+            // each thread mutates its own BitVector with its own operators
+            BitVector bits = new BitVector(n);
+            MutationOperator<BitVector> optimized = new BitFlipMutation(u);
+            MutationOperator<BitVector> cached =
+                new MutationExperiment.CachedBinomialBitFlipMutation(u);
+            return new ParallelTrialRunner.Trial[] {
+              drawBinomial,
+              drawCached,
+              () -> MutationExperiment.mutationCodeToTime(optimized, bits, samples),
+              () -> MutationExperiment.mutationCodeToTime(cached, bits, samples)
+            };
+          }
+        default:
+          {
+            // each thread crosses its own BitVectors with its own operators
+            BitVector bits1 = new BitVector(n, true);
+            BitVector bits2 = new BitVector(n, true);
+            CrossoverOperator<BitVector> optimized = new UniformCrossover(u);
+            CrossoverOperator<BitVector> cached =
+                new CrossoverExperiment.CachedBinomialUniformCrossover(u);
+            return new ParallelTrialRunner.Trial[] {
+              drawBinomial,
+              drawCached,
+              () -> CrossoverExperiment.crossoverCodeToTime(optimized, bits1, bits2, samples),
+              () -> CrossoverExperiment.crossoverCodeToTime(cached, bits1, bits2, samples)
+            };
+          }
+      }
+    };
+  }
+
+  /*
+   * Runs the table of the experiment for one operation, with a row per bit length and probability.
+   */
+  private static int runTable(ParallelTrialRunner runner, Operation operation) {
+    int useToPreventOptimizingAway = 0;
+    for (int bitLength = BitLengthSweep.first();
+        bitLength <= BitLengthSweep.last();
+        bitLength *= 2) {
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "binomial",
+          "cached-draw",
+          "optimized",
+          "cached",
+          "%less-time",
+          "t",
+          "p",
+          "%setup",
+          "samples",
+          "binom-B",
+          "draw-B",
+          "opt-B",
+          "cached-B",
+          "binom-gc",
+          "draw-gc",
+          "opt-gc",
+          "cached-gc",
+          "binom-gcms",
+          "draw-gcms",
+          "opt-gcms",
+          "cached-gcms");
+      DoubleList valuesOfU = new DoubleList();
+      for (double u = 1.0 / bitLength; u - 0.5 <= 1E-10; u *= 2) {
+        valuesOfU.add(u);
+      }
+      for (int i = 0; i < valuesOfU.size(); i++) {
+        double u = valuesOfU.get(i);
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(
+                SAMPLES_PER_TRIAL, n, samples -> variants(operation, n, u, samples));
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest = sweep.tTest(ms, 2, 3);
+        // times are converted to seconds during output
+        double timeBinomialSeconds = sweep.seconds(ms, 0);
+        double timeCachedDrawSeconds = sweep.seconds(ms, 1);
+        double timeOptimizedSeconds = sweep.seconds(ms, 2);
+        double timeCachedSeconds = sweep.seconds(ms, 3);
+        double percentLessTime =
+            100 * ((timeOptimizedSeconds - timeCachedSeconds) / timeOptimizedSeconds);
+        double percentSetup =
+            100 * ((timeBinomialSeconds - timeCachedDrawSeconds) / timeOptimizedSeconds);
+        System.out.printf(
+            "%4d\t%11.10f\t%12.3g\t%12.3g\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10.3g\t%9.2f%%\t%10d\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            n,
+            u,
+            timeBinomialSeconds,
+            timeCachedDrawSeconds,
+            timeOptimizedSeconds,
+            timeCachedSeconds,
+            percentLessTime,
+            tTest[0].doubleValue(),
+            tTest[2].doubleValue(),
+            percentSetup,
+            sweep.samples(),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perSample(results.bytes(), 3),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcCounts(), 3),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2),
+            sweep.perTrial(results.gcTimes(), 3));
+      }
+      System.out.println();
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    for (Operation operation : Operation.values()) {
+      for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+        for (ParallelTrialRunner.Trial trial :
+            variants(operation, 1024, u, SAMPLES_PER_TRIAL / 10).get()) {
+          useToPreventOptimizingAway += trial.run();
+        }
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.println("Bit masks");
+    useToPreventOptimizingAway += runTable(runner, Operation.MASK);
+    System.out.println("Bit-flip mutation");
+    useToPreventOptimizingAway += runTable(runner, Operation.MUTATION);
+    System.out.println("Uniform crossover");
+    useToPreventOptimizingAway += runTable(runner, Operation.CROSSOVER);
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) The binomial and cached-draw columns time the binomial draws alone,");
+    System.out.println("   with nextBinomial and with the precomputed sampler.");
+    System.out.println("2) Positive t value implies the version with the precomputed sampler is");
+    System.out.println("   faster than the optimized version. The p column is the p value.");
+    System.out.println("3) The %setup column is the time saved by the precomputed sampler's draws");
+    System.out.println("   as a percentage of the time of the optimized version.");
+    System.out.println("4) The -B columns are the bytes allocated per call.");
+    ParallelTrialRunner.printGcLegend(5);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}
@@ -0,0 +1,241 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import org.cicirello.math.stats.Statistics;
+
+/**
+ * The range of bit lengths of the operator experiments, along with the calibration of the number
+ * of samples per trial for each bit length. By default, the experiments cover bit lengths from 16
+ * to 1024, with a fixed number of samples per trial. If run with the system property <code>largeN
+ * </code> set to true (e.g., <code>java -DlargeN=true ...</code>), the experiments instead cover
+ * bit lengths from 2<sup>14</sup> to 2<sup>22</sup>. Since the CPU time per call of the variants
+ * grows with the bit length, and not always linearly, the number of samples per trial at such bit
+ * lengths is calibrated by timing the variants, so that a trial of the slowest variant takes
+ * roughly {@link #TRIAL_NANOS} nanoseconds. A variant is skipped for that bit length and rate if
+ * any of several single calls timed during calibration takes longer than {@link #MAX_CALL_NANOS}
+ * nanoseconds, and its columns of the output are then NaN.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+final class BitLengthSweep {
+
+  /** Target CPU time in nanoseconds of one trial of the slowest variant at large bit lengths. */
+  static final long TRIAL_NANOS = 10000000L;
+
+  /** CPU time in nanoseconds of a single call beyond which a variant is skipped. */
+  static final long MAX_CALL_NANOS = 1000000000L;
+
+  /** Number of single calls of each variant timed during calibration. */
+  private static final int PROBES = 8;
+
+  /** Longest bit length for which the samples per trial are not calibrated. */
+  private static final int SMALL_MAX = 1024;
+
+  private BitLengthSweep() {}
+
+  /**
+   * Checks whether the experiments are run in large-n mode.
+   *
+   * @return true if the system property largeN is true
+   */
+  static boolean large() {
+    return Boolean.getBoolean("largeN");
+  }
+
+  /**
+   * Gets the shortest bit length of the experiments.
+   *
+   * @return the shortest bit length
+   */
+  static int first() {
+    return large() ? 1 << 14 : 16;
+  }
+
+  /**
+   * Gets the longest bit length of the experiments.
+   *
+   * @return the longest bit length
+   */
+  static int last() {
+    return large() ? 1 << 22 : SMALL_MAX;
+  }
+
+  /**
+   * Calibrates the number of samples per trial of the variants of an experiment. For bit lengths up
+   * to 1024, this does no timing, and the calibration uses samplesPerTrial samples and skips no
+   * variants.
+   *
+   * @param samplesPerTrial the number of samples per trial for bit lengths up to 1024, which is
+   *     also the maximum for longer bit lengths
+   * @param bitLength the bit length
+   * @param variants creates the setup function of the variants for a given number of samples per
+   *     trial, as passed to {@link ParallelTrialRunner#run}
+   * @return the calibration
+   */
+  static Calibration calibrate(
+      int samplesPerTrial,
+      int bitLength,
+      IntFunction<Supplier<ParallelTrialRunner.Trial[]>> variants) {
+    if (bitLength <= SMALL_MAX) {
+      int numVariants = variants.apply(1).get().length;
+      return new Calibration(samplesPerTrial, new boolean[numVariants], variants);
+    }
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    boolean[] skipped = new boolean[variants.apply(1).get().length];
+    double slowest = 1;
+    for (int v = 0; v < skipped.length; v++) {
+      // Time several single calls, since the time of a call can vary widely with the random
+      // number of bits involved (e.g., when that number straddles a threshold at which the
+      // sampling algorithm changes), and then an increasing number of calls until the total
+      // time is measurable.
+      long elapsed = 0;
+      int calls = 0;
+      for (; calls < PROBES && !skipped[v]; calls++) {
+        long callNanos = time(bean, variants.apply(1).get()[v]);
+        skipped[v] = callNanos > MAX_CALL_NANOS;
+        elapsed += callNanos;
+      }
+      for (int c = 4 * PROBES;
+          !skipped[v] && elapsed < TRIAL_NANOS / 16 && calls < samplesPerTrial;
+          c *= 4) {
+        elapsed += time(bean, variants.apply(c).get()[v]);
+        calls += c;
+      }
+      if (!skipped[v]) {
+        slowest = Math.max(slowest, elapsed / (double) calls);
+      }
+    }
+    int samples = (int) Math.max(1, Math.min(samplesPerTrial, TRIAL_NANOS / slowest));
+    return new Calibration(samples, skipped, variants);
+  }
+
+  /*
+   * Gets the CPU time in nanoseconds of running a trial on the current thread.
+   */
+  private static long time(ThreadMXBean bean, ParallelTrialRunner.Trial trial) {
+    long start = bean.getCurrentThreadCpuTime();
+    trial.run();
+    return bean.getCurrentThreadCpuTime() - start;
+  }
+
+  /** The number of samples per trial, and which variants are skipped, for one bit length. */
+  static final class Calibration {
+
+    private final int samples;
+    private final boolean[] skipped;
+    private final IntFunction<Supplier<ParallelTrialRunner.Trial[]>> variants;
+
+    private Calibration(
+        int samples,
+        boolean[] skipped,
+        IntFunction<Supplier<ParallelTrialRunner.Trial[]>> variants) {
+      this.samples = samples;
+      this.skipped = skipped;
+      this.variants = variants;
+    }
+
+    /**
+     * Gets the number of samples per trial.
+     *
+     * @return the number of samples per trial
+     */
+    int samples() {
+      return samples;
+    }
+
+    /**
+     * Gets the setup function of the variants, where each skipped variant is replaced by a trial
+     * that does nothing.
+     *
+     * @return the setup function to pass to {@link ParallelTrialRunner#run}
+     */
+    Supplier<ParallelTrialRunner.Trial[]> setup() {
+      Supplier<ParallelTrialRunner.Trial[]> setup = variants.apply(samples);
+      return () -> {
+        ParallelTrialRunner.Trial[] trials = setup.get();
+        for (int v = 0; v < trials.length; v++) {
+          if (skipped[v]) {
+            trials[v] = () -> 0;
+          }
+        }
+        return trials;
+      };
+    }
+
+    /**
+     * Computes the average CPU time of a trial of a variant.
+     *
+     * @param ms the CPU times in nanoseconds, indexed first by variant and then by trial
+     * @param v the variant
+     * @return the average CPU time of a trial in seconds, or NaN if the variant is skipped
+     */
+    double seconds(double[][] ms, int v) {
+      return skipped[v] ? Double.NaN : Statistics.mean(ms[v]) / 1000000000.0;
+    }
+
+    /**
+     * Computes the average of a per-trial measurement of a variant per sample.
+     *
+     * @param perTrial a per-trial measurement, such as CPU time or bytes allocated, indexed first
+     *     by variant and then by trial
+     * @param v the variant
+     * @return the average per sample, or NaN if the variant is skipped
+     */
+    double perSample(double[][] perTrial, int v) {
+      return skipped[v] ? Double.NaN : Statistics.mean(perTrial[v]) / samples;
+    }
+
+    /**
+     * Computes the average of a per-trial measurement of a variant.
+     *
+     * @param perTrial a per-trial measurement, such as the number of garbage collections, indexed
+     *     first by variant and then by trial
+     * @param v the variant
+     * @return the average per trial, or NaN if the variant is skipped
+     */
+    double perTrial(double[][] perTrial, int v) {
+      return skipped[v] ? Double.NaN : Statistics.mean(perTrial[v]);
+    }
+
+    /**
+     * Compares the CPU times of two variants with Welch's t-test.
+     *
+     * @param ms the CPU times, indexed first by variant and then by trial
+     * @param a one variant
+     * @param b the other variant
+     * @return an array with t, the degrees of freedom, and p; or NaN, 0, and NaN if either variant
+     *     is skipped
+     */
+    Number[] tTest(double[][] ms, int a, int b) {
+      if (skipped[a] || skipped[b]) {
+        return new Number[] {Double.NaN, 0, Double.NaN};
+      }
+      Number[] tTest = Statistics.tTestWelch(ms[a], ms[b]);
+      double t = tTest[0].doubleValue();
+      int dof = tTest[1].intValue();
+      return new Number[] {t, dof, Statistics.p(t, dof)};
+    }
+  }
+}
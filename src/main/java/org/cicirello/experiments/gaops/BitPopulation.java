@@ -0,0 +1,112 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A population of bit strings of the same length that are stored together, rather than as separate
+ * BitVector objects, such as a {@link PopulationArena} on the heap or an {@link OffHeapPopulation}
+ * outside of it. The operators {@link ArenaBitFlipMutation} and {@link ArenaCrossover}, and the
+ * generation loop of {@link BitPopulationGA}, work with any such population.
+ *
+ * @param <P> the type of the population, to which members can be copied
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public interface BitPopulation<P extends BitPopulation<P>> {
+
+  /**
+   * Gets the number of members of the population.
+   *
+   * @return the number of members
+   */
+  int size();
+
+  /**
+   * Gets the length of each bit string.
+   *
+   * @return the length in bits
+   */
+  int length();
+
+  /** Sets every bit of every member uniformly at random. */
+  void randomize();
+
+  /**
+   * Gets a bit of a member.
+   *
+   * @param member the index of the member
+   * @param index the index of the bit
+   * @return the bit, either 0 or 1
+   */
+  int getBit(int member, int index);
+
+  /**
+   * Flips a bit of a member.
+   *
+   * @param member the index of the member
+   * @param index the index of the bit
+   */
+  void flip(int member, int index);
+
+  /**
+   * Counts the 1-bits of a member.
+   *
+   * @param member the index of the member
+   * @return the number of 1-bits
+   */
+  int countOnes(int member);
+
+  /**
+   * Copies a member of this population into another population with members of the same length.
+   *
+   * @param member the index of the member to copy
+   * @param dest the destination population, which may be this population
+   * @param destMember the index in dest of the member to overwrite
+   */
+  void copy(int member, P dest, int destMember);
+
+  /**
+   * Exchanges the bits of two members wherever a mask has 1-bits.
+   *
+   * @param member1 the index of the first member
+   * @param member2 the index of the second member
+   * @param mask the mask, as 32-bit blocks in the layout of a BitVector
+   */
+  void exchangeBits(int member1, int member2, int[] mask);
+
+  /**
+   * Exchanges a range of bits of two members.
+   *
+   * @param member1 the index of the first member
+   * @param member2 the index of the second member
+   * @param first the index of the first bit to exchange
+   * @param last the index of the last bit to exchange, which must be at least first
+   */
+  void exchangeBits(int member1, int member2, int first, int last);
+
+  /**
+   * Creates a BitVector with the same bits as a member.
+   *
+   * @param member the index of the member
+   * @return a new BitVector equal to the member
+   */
+  BitVector toBitVector(int member);
+}
@@ -0,0 +1,175 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.evo.PopulationFitnessVector;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm whose populations are stored in a pair of {@link BitPopulation}
+ * objects, one for the current population and one for the next. Selection copies the selected
+ * members of the current population into the next, after which the two swap roles, so a
+ * generation allocates no memory. The generation logic is otherwise the same as that of {@link
+ * GenerationalBitVectorGA}: the number of pairs of parents to cross is drawn from the binomial
+ * distribution, and every member of the population is then passed to the mutation operator. See
+ * {@link ArenaGA} and {@link OffHeapGA} for the versions with populations on and off the heap.
+ *
+ * @param <P> the type of the populations
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BitPopulationGA<P extends BitPopulation<P>> {
+
+  private P population;
+  private P nextPopulation;
+  private final P best;
+  private final int[] fitness;
+  private final int[] selected;
+  private final ArenaBitFlipMutation mutation;
+  private final ArenaCrossover crossover;
+  private final double crossoverRate;
+  private final Fitness<P> f;
+  private final SelectionOperator selection;
+  private final PopulationFitnessVector.Integer fitnessVector;
+  private int bestFitness;
+  private boolean hasBest;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param population the storage for the population, whose size is the population size and whose
+   *     contents are overwritten by each run
+   * @param nextPopulation the storage for the next population, which must be of the same size and
+   *     length as population
+   * @param best the storage for the best solution, with at least one member of the same length as
+   *     those of population
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param f the fitness function
+   * @param selection the selection operator
+   */
+  public BitPopulationGA(
+      P population,
+      P nextPopulation,
+      P best,
+      ArenaBitFlipMutation mutation,
+      ArenaCrossover crossover,
+      double crossoverRate,
+      Fitness<P> f,
+      SelectionOperator selection) {
+    this.population = population;
+    this.nextPopulation = nextPopulation;
+    this.best = best;
+    fitness = new int[population.size()];
+    selected = new int[population.size()];
+    this.mutation = mutation;
+    this.crossover = crossover;
+    this.crossoverRate = crossoverRate;
+    this.f = f;
+    this.selection = selection;
+    fitnessVector =
+        new PopulationFitnessVector.Integer() {
+          @Override
+          public int getFitness(int i) {
+            return fitness[i];
+          }
+
+          @Override
+          public int size() {
+            return fitness.length;
+          }
+        };
+  }
+
+  /**
+   * Runs the genetic algorithm from a new random initial population.
+   *
+   * @param generations the number of generations
+   * @return the best solution found
+   */
+  public BitVector optimize(int generations) {
+    hasBest = false;
+    population.randomize();
+    evaluate();
+    for (int g = 0; g < generations; g++) {
+      generation();
+    }
+    return best.toBitVector(0);
+  }
+
+  /**
+   * Gets the fitness of the best solution found by the most recent call to {@link #optimize}.
+   *
+   * @return the fitness of the best solution
+   */
+  public int getBestFitness() {
+    return bestFitness;
+  }
+
+  private void generation() {
+    selection.select(fitnessVector, selected);
+    for (int i = 0; i < selected.length; i++) {
+      population.copy(selected[i], nextPopulation, i);
+    }
+    P temp = population;
+    population = nextPopulation;
+    nextPopulation = temp;
+
+    int count = RandomVariates.nextBinomial(fitness.length >> 1, crossoverRate) << 1;
+    for (int i = 1; i < count; i += 2) {
+      crossover.cross(population, i - 1, i);
+    }
+    for (int i = 0; i < fitness.length; i++) {
+      mutation.mutate(population, i);
+    }
+    evaluate();
+  }
+
+  private void evaluate() {
+    for (int i = 0; i < fitness.length; i++) {
+      fitness[i] = f.fitness(population, i);
+      if (!hasBest || fitness[i] > bestFitness) {
+        bestFitness = fitness[i];
+        population.copy(i, best, 0);
+        hasBest = true;
+      }
+    }
+  }
+
+  /**
+   * A fitness function for members of a population.
+   *
+   * @param <P> the type of the population
+   */
+  @FunctionalInterface
+  public interface Fitness<P extends BitPopulation<P>> {
+
+    /**
+     * Computes the fitness of a member of a population.
+     *
+     * @param population the population
+     * @param member the index of the member
+     * @return the fitness of the member
+     */
+    int fitness(P population, int member);
+  }
+}
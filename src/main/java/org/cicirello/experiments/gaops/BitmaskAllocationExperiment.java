@@ -0,0 +1,166 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time and memory allocation of the optimized generation of random bit
+ * masks, where each call allocates a new bit mask and a new array of sampled indexes, vs generating
+ * the bit masks into a reusable buffer with a reusable pool of indexes.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BitmaskAllocationExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of samples for each trial. Need multiple to ensure times are measurable. */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    int[] bits = new int[32];
+    int[] pool = BitmaskGenerationExperiment.indexPool(1024);
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+        int[] maskOptimized = BitmaskGenerationExperiment.bitMaskOptimized(1024, u);
+        useToPreventOptimizingAway += maskOptimized[k % maskOptimized.length];
+      }
+    }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+        int[] maskReused = BitmaskGenerationExperiment.bitMaskOptimized(1024, u, bits, pool);
+        useToPreventOptimizingAway += maskReused[k % maskReused.length];
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (int bitLength = 16; bitLength <= 1024; bitLength *= 2) {
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "optimized",
+          "reused",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "opt-B",
+          "reuse-B",
+          "opt-gc",
+          "reuse-gc",
+          "opt-gcms",
+          "reuse-gcms");
+      DoubleList valuesOfU = new DoubleList();
+      for (double u = 1.0 / bitLength; u - 0.5 <= 1E-10; u *= 2) {
+        valuesOfU.add(u);
+      }
+      valuesOfU.add(0.625);
+      valuesOfU.add(0.75);
+      valuesOfU.add(0.875);
+      for (int i = 0; i < valuesOfU.size(); i++) {
+        double u = valuesOfU.get(i);
+        final int n = bitLength;
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread reuses its own buffer and pool
+                  int[] threadBits = new int[(n + 31) >> 5];
+                  int[] threadPool = BitmaskGenerationExperiment.indexPool(n);
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> {
+                      int sink = 0;
+                      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+                        int[] maskOptimized = BitmaskGenerationExperiment.bitMaskOptimized(n, u);
+                        sink += maskOptimized[k % maskOptimized.length];
+                      }
+                      return sink;
+                    },
+                    () -> {
+                      int sink = 0;
+                      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+                        int[] maskReused =
+                            BitmaskGenerationExperiment.bitMaskOptimized(
+                                n, u, threadBits, threadPool);
+                        sink += maskReused[k % maskReused.length];
+                      }
+                      return sink;
+                    }
+                  };
+                });
+        double[][] ms = results.times();
+        double[][] bytes = results.bytes();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+        // times are converted to seconds during output
+        double timeOptimizedSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeReusedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeOptimizedSeconds - timeReusedSeconds) / timeOptimizedSeconds);
+        System.out.printf(
+            "%4d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
+            bitLength,
+            u,
+            timeOptimizedSeconds,
+            timeReusedSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            Statistics.mean(bytes[0]) / SAMPLES_PER_TRIAL,
+            Statistics.mean(bytes[1]) / SAMPLES_PER_TRIAL,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]));
+      }
+      System.out.println();
+    }
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies allocating version is faster.");
+    System.out.println("2) Positive t value implies reused buffer version is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The -B columns are the bytes allocated per mask.");
+    ParallelTrialRunner.printGcLegend(5);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}
@@ -18,17 +18,18 @@
 
 package org.cicirello.experiments.gaops;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 import org.cicirello.math.rand.RandomSampler;
 import org.cicirello.math.rand.RandomVariates;
-import org.cicirello.math.stats.Statistics;
 import org.cicirello.util.DoubleList;
 
 /**
- * Experiment comparing CPU time of two alternatives for generating a random bit mask of a specified
- * length and with a specified probability of a 1-bit.
+ * Experiment comparing CPU time of alternatives for generating a random bit mask of a specified
+ * length and with a specified probability of a 1-bit: the simple per-bit approach, the optimized
+ * approach that uses the binomial distribution, an approach that jumps between 1-bits with
+ * geometrically distributed gaps, and the simple approach with the bits computed 32 at a time by
+ * comparing raw random integers against a threshold.
  *
  * <p>Vincent A. Cicirello. Optimizing Genetic Algorithms Using the Binomial Distribution.
  * <i>Proceedings of the 16th International Joint Conference on Computational Intelligence</i>,
@@ -45,6 +46,14 @@ public class BitmaskGenerationExperiment {
   /** Number of samples for each trial. Need multiple to ensure times are measurable. */
   private static final int SAMPLES_PER_TRIAL = 100000;
 
+  /** Maximum number of binary digits of u supported by the dyadic bit mask generation. */
+  private static final int MAX_DYADIC_DIGITS = 32;
+
+  /**
+   * Number of binary digits of the dyadic approximation of u used by {@link #bitMaskDyadicHybrid}.
+   */
+  public static final int HYBRID_DYADIC_DIGITS = 5;
+
   /**
    * Generates a random bit mask.
    *
@@ -54,9 +63,29 @@ public class BitmaskGenerationExperiment {
    */
   public static int[] bitMaskOptimized(int n, double u) {
     int[] bits = new int[(n + 31) >> 5];
-    int[] bitsToSet =
-        RandomSampler.sample(
-            n, RandomVariates.nextBinomial(n, u), null, ThreadLocalRandom.current());
+    RandomGenerator r = RandomSource.current();
+    int[] bitsToSet = RandomSampler.sample(n, RandomVariates.nextBinomial(n, u, r), null, r);
+    for (int index : bitsToSet) {
+      int i = index >> 5;
+      bits[i] ^= (1 << (index - (i << 5)));
+    }
+    return bits;
+  }
+
+  /**
+   * Generates a random bit mask, in the same way as {@link #bitMaskOptimized(int, double)}, but
+   * with the number of 1-bits drawn from a precomputed binomial distribution rather than set up
+   * anew by each call.
+   *
+   * @param binomial the binomial distribution of the number of 1-bits, whose number of trials is
+   *     the length of the bit mask
+   * @return returns the bit mask
+   */
+  public static int[] bitMaskCached(BinomialSampler binomial) {
+    int n = binomial.n();
+    int[] bits = new int[(n + 31) >> 5];
+    RandomGenerator r = RandomSource.current();
+    int[] bitsToSet = RandomSampler.sample(n, binomial.next(r), null, r);
     for (int index : bitsToSet) {
       int i = index >> 5;
       bits[i] ^= (1 << (index - (i << 5)));
@@ -64,6 +93,194 @@ public class BitmaskGenerationExperiment {
     return bits;
   }
 
+  /**
+   * Generates a random bit mask into a caller-owned buffer, without allocating any memory. The
+   * indexes of the bits to set are chosen with a partial Fisher-Yates shuffle of a caller-owned
+   * pool of indexes. A partial shuffle leaves the pool a permutation, so the same pool can be
+   * reused across calls without reinitializing it. If more than half of the bits are to be set, the
+   * bits to leave unset are sampled instead.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @param bits buffer for the bit mask, which must have length at least (n + 31) / 32, and whose
+   *     contents are overwritten
+   * @param pool an array of length at least n whose first n elements are a permutation of the
+   *     integers from 0 to n-1, such as one created by {@link #indexPool}
+   * @return returns bits
+   */
+  public static int[] bitMaskOptimized(int n, double u, int[] bits, int[] pool) {
+    int length32 = (n + 31) >> 5;
+    RandomGenerator r = RandomSource.current();
+    int k = RandomVariates.nextBinomial(n, u, r);
+    if (k > (n >> 1)) {
+      Arrays.fill(bits, 0, length32, 0xffffffff);
+      if ((n & 31) != 0) {
+        bits[length32 - 1] = 0xffffffff >>> (32 - (n & 31));
+      }
+      k = n - k;
+    } else {
+      Arrays.fill(bits, 0, length32, 0);
+    }
+    for (int j = 0; j < k; j++) {
+      int swap = r.nextInt(j, n);
+      int index = pool[swap];
+      pool[swap] = pool[j];
+      pool[j] = index;
+      int i = index >> 5;
+      bits[i] ^= (1 << (index - (i << 5)));
+    }
+    return bits;
+  }
+
+  /**
+   * Creates a pool of indexes for use with {@link #bitMaskOptimized(int, double, int[], int[])}.
+   *
+   * @param n length of the bit mask
+   * @return an array containing the integers from 0 to n-1
+   */
+  public static int[] indexPool(int n) {
+    int[] pool = new int[n];
+    for (int i = 0; i < n; i++) {
+      pool[i] = i;
+    }
+    return pool;
+  }
+
+  /**
+   * Generates a random bit mask by jumping directly from one 1-bit to the next, where the gaps
+   * between consecutive 1-bits are geometrically distributed. If u is greater than 0.5, the mask
+   * begins as all 1-bits and the jumps are instead between consecutive 0-bits.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @return returns the bit mask
+   */
+  public static int[] bitMaskGeometric(int n, double u) {
+    int[] bits = new int[(n + 31) >> 5];
+    if (u > 0.5) {
+      Arrays.fill(bits, 0xffffffff);
+      if ((n & 31) != 0) {
+        bits[bits.length - 1] = 0xffffffff >>> (32 - (n & 31));
+      }
+      u = 1 - u;
+    }
+    if (u <= 0) {
+      return bits;
+    }
+    double lnOneMinusU = Math.log1p(-u);
+    RandomGenerator r = RandomSource.current();
+    int index = -1;
+    while (true) {
+      // number of bits skipped before the next bit to flip
+      double gap = Math.log(1.0 - r.nextDouble()) / lnOneMinusU;
+      if (gap >= n - 1 - index) {
+        return bits;
+      }
+      index += 1 + (int) gap;
+      int i = index >> 5;
+      bits[i] ^= (1 << (index - (i << 5)));
+    }
+  }
+
+  /**
+   * Generates a random bit mask, 32 bits at a time, for a dyadic probability u = k / 2<sup>d</sup>.
+   * Each 32-bit word is formed by combining d random words, from the least significant binary digit
+   * of u to the most significant, with OR for a 1 digit and AND for a 0 digit.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit, which must be a multiple of 2<sup>-32</sup>
+   * @return returns the bit mask
+   * @throws IllegalArgumentException if u is not in [0.0, 1.0] or is not a multiple of
+   *     2<sup>-32</sup>
+   */
+  public static int[] bitMaskDyadic(int n, double u) {
+    if (u < 0 || u > 1) throw new IllegalArgumentException("u constrained by: 0.0 <= u <= 1.0");
+    int digits = 0;
+    double scaled = u;
+    while (scaled != Math.floor(scaled)) {
+      if (digits == MAX_DYADIC_DIGITS) {
+        throw new IllegalArgumentException("u must be a multiple of 2^-32");
+      }
+      scaled *= 2;
+      digits++;
+    }
+    return bitMaskDyadic(n, (long) scaled, digits);
+  }
+
+  /**
+   * Generates a random bit mask, 32 bits at a time, for an arbitrary probability u. The probability
+   * u is rounded down to a dyadic approximation q with {@link #HYBRID_DYADIC_DIGITS} binary digits,
+   * and the bit mask generated for q, 32 bits at a time. Each 0-bit of that bit mask is then set
+   * with probability (u - q) / (1 - q), using the binomial distribution as in {@link
+   * #bitMaskOptimized(int, double)}, so that each bit is a 1-bit with probability u. If u is
+   * greater than 0.5, the complement of a bit mask for 1 - u is generated, which keeps the
+   * correction step sparse.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @return returns the bit mask
+   */
+  public static int[] bitMaskDyadicHybrid(int n, double u) {
+    boolean complement = u > 0.5;
+    if (complement) {
+      u = 1 - u;
+    }
+    long numerator = (long) (u * (1L << HYBRID_DYADIC_DIGITS));
+    double q = numerator / (double) (1L << HYBRID_DYADIC_DIGITS);
+    int[] bits = bitMaskDyadic(n, numerator, HYBRID_DYADIC_DIGITS);
+    if (u > q) {
+      RandomGenerator r = RandomSource.current();
+      int[] bitsToSet =
+          RandomSampler.sample(n, RandomVariates.nextBinomial(n, (u - q) / (1 - q), r), null, r);
+      for (int index : bitsToSet) {
+        int i = index >> 5;
+        bits[i] |= (1 << (index - (i << 5)));
+      }
+    }
+    if (complement) {
+      for (int i = 0; i < bits.length; i++) {
+        bits[i] = ~bits[i];
+      }
+      if ((n & 31) != 0) {
+        bits[bits.length - 1] &= 0xffffffff >>> (32 - (n & 31));
+      }
+    }
+    return bits;
+  }
+
+  /*
+   * Generates a bit mask, 32 bits at a time, where the probability of a 1-bit
+   * is numerator / 2^digits.
+   */
+  private static int[] bitMaskDyadic(int n, long numerator, int digits) {
+    int[] bits = new int[(n + 31) >> 5];
+    if (numerator == 0) {
+      return bits;
+    }
+    while ((numerator & 1) == 0) {
+      numerator >>= 1;
+      digits--;
+    }
+    if (digits == 0) {
+      // u is 1.0
+      Arrays.fill(bits, 0xffffffff);
+    } else {
+      RandomGenerator r = RandomSource.current();
+      for (int i = 0; i < bits.length; i++) {
+        // least significant digit is a 1 since numerator is odd
+        int word = r.nextInt();
+        for (int d = 1; d < digits; d++) {
+          word = ((numerator >> d) & 1) != 0 ? word | r.nextInt() : word & r.nextInt();
+        }
+        bits[i] = word;
+      }
+    }
+    if ((n & 31) != 0) {
+      bits[bits.length - 1] &= 0xffffffff >>> (32 - (n & 31));
+    }
+    return bits;
+  }
+
   /**
    * Generates a random bit mask.
    *
@@ -74,7 +291,27 @@ public class BitmaskGenerationExperiment {
   public static int[] bitMaskSimple(int n, double u) {
     int[] bits = new int[(n + 31) >> 5];
     for (int index = 0; index < n; index++) {
-      if (ThreadLocalRandom.current().nextDouble() < u) {
+      if (RandomSource.current().nextDouble() < u) {
+        int i = index >> 5;
+        bits[i] ^= (1 << (index - (i << 5)));
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * Generates a random bit mask with the simple per-bit approach, except that it gets the random
+   * number generator of the thread once per call rather than once per bit.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @return returns the bit mask
+   */
+  public static int[] bitMaskHoisted(int n, double u) {
+    int[] bits = new int[(n + 31) >> 5];
+    RandomGenerator r = RandomSource.current();
+    for (int index = 0; index < n; index++) {
+      if (r.nextDouble() < u) {
         int i = index >> 5;
         bits[i] ^= (1 << (index - (i << 5)));
       }
@@ -82,6 +319,95 @@ public class BitmaskGenerationExperiment {
     return bits;
   }
 
+  /**
+   * Generates a random bit mask with the simple per-bit approach, but without its per-bit overhead:
+   * rather than a random double per bit, each bit is the result of comparing a 32-bit random
+   * integer against a precomputed threshold, with two such integers from each random long, and the
+   * comparison computes the bit without a branch. The probability of a 1-bit is thus u rounded down
+   * to a multiple of 2<sup>-32</sup>.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @return returns the bit mask
+   */
+  public static int[] bitMaskThreshold(int n, double u) {
+    int[] bits = new int[(n + 31) >> 5];
+    long threshold = threshold(u);
+    RandomGenerator r = RandomSource.current();
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = thresholdWord(r, threshold);
+    }
+    if ((n & 31) != 0) {
+      bits[bits.length - 1] &= 0xffffffff >>> (32 - (n & 31));
+    }
+    return bits;
+  }
+
+  /**
+   * Computes the threshold for {@link #thresholdWord} for a probability.
+   *
+   * @param u probability of a 1-bit
+   * @return the threshold, which is u * 2<sup>32</sup> rounded down
+   */
+  public static long threshold(double u) {
+    return u <= 0.0 ? 0 : (u >= 1.0 ? 1L << 32 : (long) (u * 4294967296.0));
+  }
+
+  /**
+   * Generates 32 random bits, each of which is a 1-bit if a 32-bit random integer (interpreted as
+   * unsigned) is less than a threshold, with two such integers from each random long.
+   *
+   * @param r the source of randomness
+   * @param threshold the threshold, as computed by {@link #threshold}
+   * @return the 32 random bits
+   */
+  public static int thresholdWord(RandomGenerator r, long threshold) {
+    int word = 0;
+    for (int j = 0; j < 32; j += 2) {
+      long draws = r.nextLong();
+      // the sign bit of the difference is 1 if and only if the draw is less than threshold
+      word |= (int) (((draws >>> 32) - threshold) >>> 63) << j;
+      word |= (int) (((draws & 0xffffffffL) - threshold) >>> 63) << (j + 1);
+    }
+    return word;
+  }
+
+  /**
+   * Generates a random bit mask, stored in 64-bit words.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @return returns the bit mask
+   */
+  public static long[] bitMaskOptimized64(int n, double u) {
+    long[] bits = new long[(n + 63) >> 6];
+    RandomGenerator r = RandomSource.current();
+    int[] bitsToSet = RandomSampler.sample(n, RandomVariates.nextBinomial(n, u, r), null, r);
+    for (int index : bitsToSet) {
+      int i = index >> 6;
+      bits[i] ^= (1L << (index - (i << 6)));
+    }
+    return bits;
+  }
+
+  /**
+   * Generates a random bit mask, stored in 64-bit words.
+   *
+   * @param n length of the bit mask
+   * @param u probability of a 1-bit
+   * @return returns the bit mask
+   */
+  public static long[] bitMaskSimple64(int n, double u) {
+    long[] bits = new long[(n + 63) >> 6];
+    for (int index = 0; index < n; index++) {
+      if (RandomSource.current().nextDouble() < u) {
+        int i = index >> 6;
+        bits[i] ^= (1L << (index - (i << 6)));
+      }
+    }
+    return bits;
+  }
+
   /**
    * Runs the experiment.
    *
@@ -89,7 +415,7 @@ public class BitmaskGenerationExperiment {
    */
   public static void main(String[] args) {
 
-    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    ParallelTrialRunner runner = new ParallelTrialRunner();
     int useToPreventOptimizingAway = 0;
 
     // Attempt to "warm-up" Java's JIT compiler.
@@ -106,13 +432,63 @@ public class BitmaskGenerationExperiment {
         useToPreventOptimizingAway += maskOptimized[k % maskOptimized.length];
       }
     }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+        int[] maskGeometric = bitMaskGeometric(1024, u);
+        useToPreventOptimizingAway += maskGeometric[k % maskGeometric.length];
+      }
+    }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+        int[] maskThreshold = bitMaskThreshold(1024, u);
+        useToPreventOptimizingAway += maskThreshold[k % maskThreshold.length];
+      }
+    }
     System.out.println("End Warmup Phase");
     System.out.println();
 
-    for (int bitLength = 16; bitLength <= 1024; bitLength *= 2) {
+    for (int bitLength = BitLengthSweep.first();
+        bitLength <= BitLengthSweep.last();
+        bitLength *= 2) {
       System.out.printf(
-          "%4s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s%n",
-          "n", "u", "simple", "optimized", "%less-time", "t", "dof", "p");
+          "%4s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "simple",
+          "optimized",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "geometric",
+          "t-simple",
+          "dof-simple",
+          "p-simple",
+          "t-opt",
+          "dof-opt",
+          "p-opt",
+          "threshold",
+          "t-thr",
+          "dof-thr",
+          "p-thr",
+          "samples",
+          "touched-B",
+          "simple-ns",
+          "opt-ns",
+          "geo-ns",
+          "thr-ns",
+          "simple-B",
+          "opt-B",
+          "geo-B",
+          "thr-B",
+          "simple-gc",
+          "opt-gc",
+          "geo-gc",
+          "thr-gc",
+          "simple-gcms",
+          "opt-gcms",
+          "geo-gcms",
+          "thr-gcms");
       DoubleList valuesOfU = new DoubleList();
       for (double u = 1.0 / bitLength; u - 0.5 <= 1E-10; u *= 2) {
         valuesOfU.add(u);
@@ -122,35 +498,113 @@ public class BitmaskGenerationExperiment {
       valuesOfU.add(0.875);
       for (int i = 0; i < valuesOfU.size(); i++) {
         double u = valuesOfU.get(i);
-        double[][] ms = new double[2][TRIALS];
-        for (int j = 0; j < TRIALS; j++) {
-          long start = bean.getCurrentThreadCpuTime();
-          for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
-            int[] maskSimple = bitMaskSimple(bitLength, u);
-            useToPreventOptimizingAway += maskSimple[k % maskSimple.length];
-          }
-          long middle = bean.getCurrentThreadCpuTime();
-          for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
-            int[] maskOptimized = bitMaskOptimized(bitLength, u);
-            useToPreventOptimizingAway += maskOptimized[k % maskOptimized.length];
-          }
-          long end = bean.getCurrentThreadCpuTime();
-          // compute elapsed times in nanoseconds
-          ms[0][j] = (middle - start);
-          ms[1][j] = (end - middle);
-        }
-        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(
+                SAMPLES_PER_TRIAL,
+                n,
+                samples ->
+                    () ->
+                        new ParallelTrialRunner.Trial[] {
+                          () -> {
+                            int sink = 0;
+                            for (int k = 0; k < samples; k++) {
+                              int[] maskSimple = bitMaskSimple(n, u);
+                              sink += maskSimple[k % maskSimple.length];
+                            }
+                            return sink;
+                          },
+                          () -> {
+                            int sink = 0;
+                            for (int k = 0; k < samples; k++) {
+                              int[] maskOptimized = bitMaskOptimized(n, u);
+                              sink += maskOptimized[k % maskOptimized.length];
+                            }
+                            return sink;
+                          },
+                          () -> {
+                            int sink = 0;
+                            for (int k = 0; k < samples; k++) {
+                              int[] maskGeometric = bitMaskGeometric(n, u);
+                              sink += maskGeometric[k % maskGeometric.length];
+                            }
+                            return sink;
+                          },
+                          () -> {
+                            int sink = 0;
+                            for (int k = 0; k < samples; k++) {
+                              int[] maskThreshold = bitMaskThreshold(n, u);
+                              sink += maskThreshold[k % maskThreshold.length];
+                            }
+                            return sink;
+                          }
+                        });
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest = sweep.tTest(ms, 0, 1);
         double t = tTest[0].doubleValue();
         int dof = tTest[1].intValue();
-        double p = Statistics.p(t, dof);
+        double p = tTest[2].doubleValue();
+        Number[] tTestSimple = sweep.tTest(ms, 0, 2);
+        double tSimple = tTestSimple[0].doubleValue();
+        int dofSimple = tTestSimple[1].intValue();
+        double pSimple = tTestSimple[2].doubleValue();
+        Number[] tTestOptimized = sweep.tTest(ms, 1, 2);
+        double tOptimized = tTestOptimized[0].doubleValue();
+        int dofOptimized = tTestOptimized[1].intValue();
+        double pOptimized = tTestOptimized[2].doubleValue();
+        Number[] tTestThreshold = sweep.tTest(ms, 3, 1);
+        double tThreshold = tTestThreshold[0].doubleValue();
+        int dofThreshold = tTestThreshold[1].intValue();
+        double pThreshold = tTestThreshold[2].doubleValue();
         // times are converted to seconds during output
-        double timeSimpleSeconds = Statistics.mean(ms[0]) / 1000000000.0;
-        double timeOptimizedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double timeSimpleSeconds = sweep.seconds(ms, 0);
+        double timeOptimizedSeconds = sweep.seconds(ms, 1);
+        double timeGeometricSeconds = sweep.seconds(ms, 2);
+        double timeThresholdSeconds = sweep.seconds(ms, 3);
         double percentLessTime =
             100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
         System.out.printf(
-            "%4d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g%n",
-            bitLength, u, timeSimpleSeconds, timeOptimizedSeconds, percentLessTime, t, dof, p);
+            "%4d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10d\t%10d\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            bitLength,
+            u,
+            timeSimpleSeconds,
+            timeOptimizedSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            timeGeometricSeconds,
+            tSimple,
+            dofSimple,
+            pSimple,
+            tOptimized,
+            dofOptimized,
+            pOptimized,
+            timeThresholdSeconds,
+            tThreshold,
+            dofThreshold,
+            pThreshold,
+            sweep.samples(),
+            // bytes of the mask, all of which each version writes
+            (n + 7) / 8,
+            sweep.perSample(ms, 0),
+            sweep.perSample(ms, 1),
+            sweep.perSample(ms, 2),
+            sweep.perSample(ms, 3),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perSample(results.bytes(), 3),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcCounts(), 3),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2),
+            sweep.perTrial(results.gcTimes(), 3));
       }
       System.out.println();
     }
@@ -158,8 +612,21 @@ public class BitmaskGenerationExperiment {
     System.out.println("1) Negative t value implies simple version is faster.");
     System.out.println("2) Positive t value implies optimized version is faster.");
     System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The t-simple and t-opt columns compare the geometric version to the");
+    System.out.println("   simple and optimized versions: positive t implies geometric is faster.");
+    System.out.println("5) The threshold version is the simple version with the bits computed 32");
+    System.out.println("   at a time from raw random integers. The t-thr column compares it to");
+    System.out.println("   the optimized version: positive t implies optimized is faster.");
+    System.out.println("6) Each trial generates samples masks, which is calibrated to the CPU");
+    System.out.println("   time of the slowest version for n > 1024 (run with -DlargeN=true for");
+    System.out.println("   n from 2^14 to 2^22). The touched-B column is the size in bytes of a");
+    System.out.println("   mask, the -ns columns are the CPU time per mask, and the -B columns");
+    System.out.println("   are the bytes allocated per mask. NaN marks a version that was");
+    System.out.println("   skipped because generating a single mask took longer than a second.");
+    ParallelTrialRunner.printGcLegend(7);
 
     System.out.println(
         "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
   }
 }
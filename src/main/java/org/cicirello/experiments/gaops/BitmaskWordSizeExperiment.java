@@ -0,0 +1,223 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.function.Supplier;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time of generating random bit masks stored in 32-bit words vs stored in
+ * 64-bit words, for both the simple and the optimized bit mask generation. The bit lengths extend
+ * well beyond those of {@link BitmaskGenerationExperiment}. For bit lengths greater than 1024, the
+ * number of samples per trial is calibrated with {@link BitLengthSweep}, which also skips any
+ * version for which a single call takes longer than a second. The optimized versions sample the
+ * indexes of the bits with RandomSampler, which uses insertion sampling, quadratic in the number
+ * of bits k, whenever k*k &lt; n. That product overflows int for k &ge; 46341 and can wrap to a
+ * negative value, so at the longest bit lengths the quadratic sampler is chosen even for rates far
+ * above 1/sqrt(n), and such calls are skipped rather than timed.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class BitmaskWordSizeExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /**
+   * Number of samples for each trial for bit lengths up to 1024. Need multiple to ensure times are
+   * measurable. For longer bit masks, this is the maximum of the calibrated number of samples.
+   */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /** Longest bit length in the experiment. */
+  private static final int MAX_BIT_LENGTH = 1 << 20;
+
+  /*
+   * Creates the setup function of the four versions, in the order of the columns of the output.
+   */
+  private static Supplier<ParallelTrialRunner.Trial[]> variants(int n, double u, int samples) {
+    return () ->
+        new ParallelTrialRunner.Trial[] {
+          () -> {
+            int sink = 0;
+            for (int k = 0; k < samples; k++) {
+              int[] mask = BitmaskGenerationExperiment.bitMaskSimple(n, u);
+              sink += mask[k % mask.length];
+            }
+            return sink;
+          },
+          () -> {
+            int sink = 0;
+            for (int k = 0; k < samples; k++) {
+              long[] mask = BitmaskGenerationExperiment.bitMaskSimple64(n, u);
+              sink += (int) mask[k % mask.length];
+            }
+            return sink;
+          },
+          () -> {
+            int sink = 0;
+            for (int k = 0; k < samples; k++) {
+              int[] mask = BitmaskGenerationExperiment.bitMaskOptimized(n, u);
+              sink += mask[k % mask.length];
+            }
+            return sink;
+          },
+          () -> {
+            int sink = 0;
+            for (int k = 0; k < samples; k++) {
+              long[] mask = BitmaskGenerationExperiment.bitMaskOptimized64(n, u);
+              sink += (int) mask[k % mask.length];
+            }
+            return sink;
+          }
+        };
+  }
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    long useToPreventOptimizingAway = 0;
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+        int[] maskSimple = BitmaskGenerationExperiment.bitMaskSimple(1024, u);
+        useToPreventOptimizingAway += maskSimple[k % maskSimple.length];
+        long[] maskSimple64 = BitmaskGenerationExperiment.bitMaskSimple64(1024, u);
+        useToPreventOptimizingAway += maskSimple64[k % maskSimple64.length];
+      }
+    }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+        int[] maskOptimized = BitmaskGenerationExperiment.bitMaskOptimized(1024, u);
+        useToPreventOptimizingAway += maskOptimized[k % maskOptimized.length];
+        long[] maskOptimized64 = BitmaskGenerationExperiment.bitMaskOptimized64(1024, u);
+        useToPreventOptimizingAway += maskOptimized64[k % maskOptimized64.length];
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (int bitLength = 16; bitLength <= MAX_BIT_LENGTH; bitLength *= 2) {
+      System.out.printf(
+          "%7s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "simple32",
+          "simple64",
+          "%less-time",
+          "t",
+          "p",
+          "optimized32",
+          "optimized64",
+          "%less-time",
+          "t",
+          "p",
+          "samples",
+          "simple32-B",
+          "simple64-B",
+          "opt32-B",
+          "opt64-B",
+          "simple32-gc",
+          "simple64-gc",
+          "opt32-gc",
+          "opt64-gc",
+          "simple32-gcms",
+          "simple64-gcms",
+          "opt32-gcms",
+          "opt64-gcms");
+      DoubleList valuesOfU = new DoubleList();
+      for (double u = 1.0 / bitLength; u - 0.5 <= 1E-10; u *= 2) {
+        valuesOfU.add(u);
+      }
+      valuesOfU.add(0.625);
+      valuesOfU.add(0.75);
+      valuesOfU.add(0.875);
+      for (int i = 0; i < valuesOfU.size(); i++) {
+        double u = valuesOfU.get(i);
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(SAMPLES_PER_TRIAL, n, samples -> variants(n, u, samples));
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTestSimple = sweep.tTest(ms, 0, 1);
+        double tSimple = tTestSimple[0].doubleValue();
+        double pSimple = tTestSimple[2].doubleValue();
+        Number[] tTestOptimized = sweep.tTest(ms, 2, 3);
+        double tOptimized = tTestOptimized[0].doubleValue();
+        double pOptimized = tTestOptimized[2].doubleValue();
+        // times are converted to seconds during output
+        double[] seconds = new double[4];
+        for (int v = 0; v < seconds.length; v++) {
+          seconds[v] = sweep.seconds(ms, v);
+        }
+        System.out.printf(
+            "%7d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10.3g\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10.3g\t%10d\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            bitLength,
+            u,
+            seconds[0],
+            seconds[1],
+            100 * ((seconds[0] - seconds[1]) / seconds[0]),
+            tSimple,
+            pSimple,
+            seconds[2],
+            seconds[3],
+            100 * ((seconds[2] - seconds[3]) / seconds[2]),
+            tOptimized,
+            pOptimized,
+            sweep.samples(),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perSample(results.bytes(), 3),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcCounts(), 3),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2),
+            sweep.perTrial(results.gcTimes(), 3));
+      }
+      System.out.println();
+    }
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Times are CPU seconds per trial; trials of bit lengths greater than");
+    System.out.println("   1024 generate a calibrated number of masks (see samples per trial).");
+    System.out.println("   NaN marks a version that was skipped because a single mask took");
+    System.out.println("   longer than a second.");
+    System.out.println("2) Negative t value implies 32-bit words are faster.");
+    System.out.println("3) Positive t value implies 64-bit words are faster.");
+    System.out.println("4) The p column is, well, the p value.");
+    System.out.println("5) The -B columns are the bytes allocated per mask.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}
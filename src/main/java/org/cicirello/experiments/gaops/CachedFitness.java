@@ -0,0 +1,178 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.problems.IntegerCostOptimizationProblem;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A fitness function that memoizes the fitness values of another fitness function, for use when
+ * many members of a population are identical, such as late in a run once the population has
+ * converged. The cache is keyed by the contents of the BitVectors, as the 32-bit blocks returned
+ * by {@link BitVector#get32}, and is bounded, evicting the least recently used entry when full. A
+ * lookup copies the blocks into a reusable buffer, so a cache hit allocates no memory. The cache
+ * counts its hits, misses, and evictions. It is not thread-safe, so each thread needs its own
+ * instance.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class CachedFitness
+    implements FitnessFunction.Integer<BitVector>, IntegerCostOptimizationProblem<BitVector> {
+
+  private final FitnessFunction.Integer<BitVector> f;
+  private final IntegerCostOptimizationProblem<BitVector> problem;
+  // qualified, since Integer alone refers to FitnessFunction.Integer within this class
+  private final LinkedHashMap<Key, java.lang.Integer> cache;
+  private final Key probe;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Constructs a cached fitness function.
+   *
+   * @param f the fitness function whose values are cached
+   * @param capacity the maximum number of fitness values in the cache
+   * @param <F> the type of the fitness function, which is also the problem being solved
+   * @throws IllegalArgumentException if capacity is less than 1
+   */
+  public <F extends FitnessFunction.Integer<BitVector> & IntegerCostOptimizationProblem<BitVector>>
+      CachedFitness(F f, int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("capacity must be at least 1");
+    this.f = f;
+    problem = f;
+    probe = new Key(new int[0]);
+    cache =
+        new LinkedHashMap<Key, java.lang.Integer>(capacity + (capacity >> 1), 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, java.lang.Integer> eldest) {
+            if (size() > capacity) {
+              evictions++;
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  @Override
+  public int fitness(BitVector b) {
+    probe.set(b);
+    java.lang.Integer cached = cache.get(probe);
+    if (cached != null) {
+      hits++;
+      return cached;
+    }
+    misses++;
+    int value = f.fitness(b);
+    cache.put(new Key(probe.words.clone()), value);
+    return value;
+  }
+
+  @Override
+  public int cost(BitVector b) {
+    return problem.cost(b);
+  }
+
+  @Override
+  public int value(BitVector b) {
+    return problem.value(b);
+  }
+
+  @Override
+  public CachedFitness getProblem() {
+    return this;
+  }
+
+  /** Removes all entries from the cache, and resets the counts of hits, misses, and evictions. */
+  public void clear() {
+    cache.clear();
+    hits = misses = evictions = 0;
+  }
+
+  /**
+   * Gets the number of calls to {@link #fitness} whose value was found in the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long hits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of calls to {@link #fitness} whose value was computed.
+   *
+   * @return the number of cache misses
+   */
+  public long misses() {
+    return misses;
+  }
+
+  /**
+   * Gets the number of entries that were removed to keep the cache within its capacity.
+   *
+   * @return the number of evictions
+   */
+  public long evictions() {
+    return evictions;
+  }
+
+  /*
+   * The contents of a BitVector as a key of the cache.
+   */
+  private static final class Key {
+
+    private int[] words;
+    private int hash;
+
+    private Key(int[] words) {
+      this.words = words;
+      hash = Arrays.hashCode(words);
+    }
+
+    /*
+     * Sets this key to the contents of a BitVector, reusing its array when the length matches.
+     */
+    private void set(BitVector b) {
+      int length32 = (b.length() + 31) >> 5;
+      if (words.length != length32) {
+        words = new int[length32];
+      }
+      for (int i = 0; i < length32; i++) {
+        words[i] = b.get32(i);
+      }
+      hash = Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Key && Arrays.equals(words, ((Key) other).words);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
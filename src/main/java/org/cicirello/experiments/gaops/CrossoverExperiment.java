@@ -18,17 +18,19 @@
 
 package org.cicirello.experiments.gaops;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
-import java.util.concurrent.ThreadLocalRandom;
-import org.cicirello.math.stats.Statistics;
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomSampler;
+import org.cicirello.math.rand.RandomVariates;
 import org.cicirello.search.operators.CrossoverOperator;
 import org.cicirello.search.operators.bits.UniformCrossover;
 import org.cicirello.search.representations.BitVector;
 import org.cicirello.util.DoubleList;
 
 /**
- * Experiment comparing CPU time of two alternative uniform mutation implementations.
+ * Experiment comparing CPU time of alternative uniform crossover implementations: the simple
+ * per-bit approach, the optimized approach that uses the binomial distribution, the simple
+ * approach with the mask computed 32 bits at a time by comparing raw random integers against a
+ * threshold, and an approach that exchanges the sampled bits directly without a mask.
  *
  * <p>Vincent A. Cicirello. Optimizing Genetic Algorithms Using the Binomial Distribution.
  * <i>Proceedings of the 16th International Joint Conference on Computational Intelligence</i>,
@@ -56,9 +58,58 @@ public class CrossoverExperiment {
    */
   public static int crossoverCodeToTime(
       CrossoverOperator<BitVector> crossover, BitVector v1, BitVector v2) {
+    return crossoverCodeToTime(crossover, v1, v2, SAMPLES_PER_TRIAL);
+  }
+
+  /**
+   * Crosses 2 BitVectors a specified number of times.
+   *
+   * @param crossover the crossover operator
+   * @param v1 a BitVector
+   * @param v2 another BitVector
+   * @param samples the number of times to cross the BitVectors
+   * @return a meaningless value dependent upon result of all crossovers for purpose of preventing
+   *     JIT from optimizing away the computation
+   */
+  public static int crossoverCodeToTime(
+      CrossoverOperator<BitVector> crossover, BitVector v1, BitVector v2, int samples) {
     int useToPreventOptimizingAway = 0;
     int length32 = (v1.length() + 31) >> 5;
-    for (int i = 0; i < SAMPLES_PER_TRIAL; i++) {
+    for (int i = 0; i < samples; i++) {
+      crossover.cross(v1, v2);
+      int j = i % length32;
+      useToPreventOptimizingAway += v1.get32(j) + v2.get32(j);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Crosses 2 BitVectors a specified number of times with the threshold version. The versions
+   * other than the simple and optimized versions are each timed by a method of their own, so that
+   * the call of cross in crossoverCodeToTime sees only the simple and optimized versions, as in the
+   * original experiment, rather than becoming megamorphic.
+   */
+  private static int thresholdCodeToTime(
+      ThresholdUniformCrossover crossover, BitVector v1, BitVector v2, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (v1.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
+      crossover.cross(v1, v2);
+      int j = i % length32;
+      useToPreventOptimizingAway += v1.get32(j) + v2.get32(j);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Crosses 2 BitVectors a specified number of times with the sparse version, from a call site of
+   * its own, like thresholdCodeToTime.
+   */
+  private static int sparseCodeToTime(
+      SparseUniformCrossover crossover, BitVector v1, BitVector v2, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (v1.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
       crossover.cross(v1, v2);
       int j = i % length32;
       useToPreventOptimizingAway += v1.get32(j) + v2.get32(j);
@@ -73,7 +124,7 @@ public class CrossoverExperiment {
    */
   public static void main(String[] args) {
 
-    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    ParallelTrialRunner runner = new ParallelTrialRunner();
     int useToPreventOptimizingAway = 0;
 
     // Attempt to "warm-up" Java's JIT compiler.
@@ -82,18 +133,57 @@ public class CrossoverExperiment {
     for (double u : rates) {
       SimpleUniformCrossover simple = new SimpleUniformCrossover(u);
       UniformCrossover optimized = new UniformCrossover(u);
+      ThresholdUniformCrossover threshold = new ThresholdUniformCrossover(u);
+      SparseUniformCrossover sparse = new SparseUniformCrossover(u);
       BitVector v1 = new BitVector(1024, true);
       BitVector v2 = new BitVector(1024, true);
       useToPreventOptimizingAway += crossoverCodeToTime(simple, v1, v2);
       useToPreventOptimizingAway += crossoverCodeToTime(optimized, v1, v2);
+      useToPreventOptimizingAway += thresholdCodeToTime(threshold, v1, v2, SAMPLES_PER_TRIAL);
+      useToPreventOptimizingAway += sparseCodeToTime(sparse, v1, v2, SAMPLES_PER_TRIAL);
     }
     System.out.println("End Warmup Phase");
     System.out.println();
 
-    for (int bitLength = 16; bitLength <= 1024; bitLength *= 2) {
+    for (int bitLength = BitLengthSweep.first();
+        bitLength <= BitLengthSweep.last();
+        bitLength *= 2) {
       System.out.printf(
-          "%4s\t%2s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s%n",
-          "n", "u", "simple", "optimized", "%less-time", "t", "dof", "p");
+          "%4s\t%2s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "simple",
+          "optimized",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "threshold",
+          "t-thr",
+          "dof-thr",
+          "p-thr",
+          "sparse",
+          "t-sparse",
+          "dof-sparse",
+          "p-sparse",
+          "samples",
+          "touched-B",
+          "simple-ns",
+          "opt-ns",
+          "thr-ns",
+          "sparse-ns",
+          "simple-B",
+          "opt-B",
+          "thr-B",
+          "sparse-B",
+          "simple-gc",
+          "opt-gc",
+          "thr-gc",
+          "sparse-gc",
+          "simple-gcms",
+          "opt-gcms",
+          "thr-gcms",
+          "sparse-gcms");
       DoubleList valuesOfU = new DoubleList();
       for (double u : rates) {
         valuesOfU.add(u);
@@ -102,31 +192,89 @@ public class CrossoverExperiment {
         double u = valuesOfU.get(i);
         SimpleUniformCrossover simple = new SimpleUniformCrossover(u);
         UniformCrossover optimized = new UniformCrossover(u);
-        BitVector bits1 = new BitVector(bitLength, true);
-        BitVector bits2 = new BitVector(bitLength, true);
-        double[][] ms = new double[2][TRIALS];
-        for (int j = 0; j < TRIALS; j++) {
-          long start = bean.getCurrentThreadCpuTime();
-          useToPreventOptimizingAway += crossoverCodeToTime(simple, bits1, bits2);
-          long middle = bean.getCurrentThreadCpuTime();
-          useToPreventOptimizingAway += crossoverCodeToTime(optimized, bits1, bits2);
-          long end = bean.getCurrentThreadCpuTime();
-          // compute elapsed times in nanoseconds
-          ms[0][j] = (middle - start);
-          ms[1][j] = (end - middle);
-        }
-        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        ThresholdUniformCrossover threshold = new ThresholdUniformCrossover(u);
+        SparseUniformCrossover sparse = new SparseUniformCrossover(u);
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(
+                SAMPLES_PER_TRIAL,
+                n,
+                samples ->
+                    () -> {
+                      // each thread crosses its own BitVectors with its own operators
+                      BitVector bits1 = new BitVector(n, true);
+                      BitVector bits2 = new BitVector(n, true);
+                      CrossoverOperator<BitVector> simpleCopy = simple.split();
+                      CrossoverOperator<BitVector> optimizedCopy = optimized.split();
+                      ThresholdUniformCrossover thresholdCopy = threshold.split();
+                      SparseUniformCrossover sparseCopy = sparse.split();
+                      return new ParallelTrialRunner.Trial[] {
+                        () -> crossoverCodeToTime(simpleCopy, bits1, bits2, samples),
+                        () -> crossoverCodeToTime(optimizedCopy, bits1, bits2, samples),
+                        () -> thresholdCodeToTime(thresholdCopy, bits1, bits2, samples),
+                        () -> sparseCodeToTime(sparseCopy, bits1, bits2, samples)
+                      };
+                    });
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest = sweep.tTest(ms, 0, 1);
         double t = tTest[0].doubleValue();
         int dof = tTest[1].intValue();
-        double p = Statistics.p(t, dof);
+        double p = tTest[2].doubleValue();
+        Number[] tTestThreshold = sweep.tTest(ms, 2, 1);
+        double tThreshold = tTestThreshold[0].doubleValue();
+        int dofThreshold = tTestThreshold[1].intValue();
+        double pThreshold = tTestThreshold[2].doubleValue();
+        Number[] tTestSparse = sweep.tTest(ms, 1, 3);
+        double tSparse = tTestSparse[0].doubleValue();
+        int dofSparse = tTestSparse[1].intValue();
+        double pSparse = tTestSparse[2].doubleValue();
         // times are converted to seconds during output
-        double timeSimpleSeconds = Statistics.mean(ms[0]) / 1000000000.0;
-        double timeOptimizedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double timeSimpleSeconds = sweep.seconds(ms, 0);
+        double timeOptimizedSeconds = sweep.seconds(ms, 1);
+        double timeThresholdSeconds = sweep.seconds(ms, 2);
+        double timeSparseSeconds = sweep.seconds(ms, 3);
         double percentLessTime =
             100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
         System.out.printf(
-            "%4d\t%2.1f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g%n",
-            bitLength, u, timeSimpleSeconds, timeOptimizedSeconds, percentLessTime, t, dof, p);
+            "%4d\t%2.1f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10d\t%10d\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            bitLength,
+            u,
+            timeSimpleSeconds,
+            timeOptimizedSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            timeThresholdSeconds,
+            tThreshold,
+            dofThreshold,
+            pThreshold,
+            timeSparseSeconds,
+            tSparse,
+            dofSparse,
+            pSparse,
+            sweep.samples(),
+            // bytes of the bits of both parents and of the mask, all of which the simple version
+            // reads or writes
+            3 * ((n + 7) / 8),
+            sweep.perSample(ms, 0),
+            sweep.perSample(ms, 1),
+            sweep.perSample(ms, 2),
+            sweep.perSample(ms, 3),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perSample(results.bytes(), 3),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcCounts(), 3),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2),
+            sweep.perTrial(results.gcTimes(), 3));
       }
       System.out.println();
     }
@@ -134,9 +282,23 @@ public class CrossoverExperiment {
     System.out.println("1) Negative t value implies simple version is faster.");
     System.out.println("2) Positive t value implies optimized version is faster.");
     System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The threshold version is the simple version with the mask computed 32");
+    System.out.println("   bits at a time from raw random integers. The t-thr column compares it");
+    System.out.println("   to the optimized version: positive t implies optimized is faster.");
+    System.out.println("5) The sparse version exchanges the sampled bits directly, without a");
+    System.out.println("   mask. The t-sparse column compares it to the optimized version:");
+    System.out.println("   positive t implies sparse is faster.");
+    System.out.println("6) Each trial performs samples crossovers, which is calibrated to the CPU");
+    System.out.println("   time of the slowest version for n > 1024 (run with -DlargeN=true for");
+    System.out.println("   n from 2^14 to 2^22). The touched-B column is the size in bytes of the");
+    System.out.println("   parents and mask, the -ns columns are the CPU time per crossover, and");
+    System.out.println("   the -B columns are the bytes allocated per crossover. NaN marks a");
+    System.out.println("   version that was skipped because one crossover took over a second.");
+    ParallelTrialRunner.printGcLegend(7);
 
     System.out.println(
         "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
   }
 
   /** The commonly found implementation of uniform crossover. */
@@ -160,7 +322,7 @@ public class CrossoverExperiment {
       int n = c1.length();
       BitVector mask = new BitVector(n);
       for (int index = 0; index < n; index++) {
-        if (ThreadLocalRandom.current().nextDouble() < p) {
+        if (RandomSource.current().nextDouble() < p) {
           mask.flip(index);
         }
       }
@@ -173,4 +335,189 @@ public class CrossoverExperiment {
       return this;
     }
   }
+
+  /**
+   * Uniform crossover with the simple per-bit approach, except that it gets the random number
+   * generator of the thread once per call rather than once per bit.
+   */
+  public static final class HoistedUniformCrossover implements CrossoverOperator<BitVector> {
+
+    private final double p;
+
+    /**
+     * Constructs a uniform crossover operator.
+     *
+     * @param p The per-bit probability of exchanging each bit between the parents in forming the
+     *     children.
+     */
+    public HoistedUniformCrossover(double p) {
+      this.p = p <= 0.0 ? 0.0 : (p >= 1.0 ? 1.0 : p);
+    }
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      int n = c1.length();
+      BitVector mask = new BitVector(n);
+      RandomGenerator r = RandomSource.current();
+      for (int index = 0; index < n; index++) {
+        if (r.nextDouble() < p) {
+          mask.flip(index);
+        }
+      }
+      BitVector.exchangeBits(c1, c2, mask);
+    }
+
+    @Override
+    public HoistedUniformCrossover split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Uniform crossover with the simple per-bit approach, but without its per-bit overhead: it
+   * generates the mask 32 bits at a time with {@link BitmaskGenerationExperiment#thresholdWord},
+   * comparing 32-bit random integers against a precomputed threshold rather than calling
+   * nextDouble() for each bit, and exchanges the bits 32 at a time without allocating a mask. This
+   * is the best simple implementation to compare the optimized approach against.
+   */
+  public static final class ThresholdUniformCrossover implements CrossoverOperator<BitVector> {
+
+    private final long threshold;
+
+    /**
+     * Constructs a uniform crossover operator.
+     *
+     * @param p The per-bit probability of exchanging each bit between the parents in forming the
+     *     children, which is rounded down to a multiple of 2<sup>-32</sup>.
+     */
+    public ThresholdUniformCrossover(double p) {
+      threshold = BitmaskGenerationExperiment.threshold(p);
+    }
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      int n = c1.length();
+      int length32 = (n + 31) >> 5;
+      RandomGenerator r = RandomSource.current();
+      for (int i = 0; i < length32; i++) {
+        int w1 = c1.get32(i);
+        int w2 = c2.get32(i);
+        int exchange = (w1 ^ w2) & BitmaskGenerationExperiment.thresholdWord(r, threshold);
+        c1.set32(i, w1 ^ exchange);
+        c2.set32(i, w2 ^ exchange);
+      }
+    }
+
+    @Override
+    public ThresholdUniformCrossover split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Uniform crossover that chooses the bits to exchange in the same way as the optimized uniform
+   * crossover, drawing the number of bits from the binomial distribution and then sampling their
+   * indexes, but that exchanges each sampled bit between the parents directly, rather than first
+   * building a mask of all n bits. The indexes are sampled with a partial Fisher-Yates shuffle of
+   * a pool of indexes that the operator reuses across calls (see {@link
+   * BitmaskGenerationExperiment#bitMaskOptimized(int, double, int[], int[])}), so a crossover
+   * allocates no memory, and its cost depends on the number of bits exchanged, and not on the
+   * length of the BitVectors. The pool is created when first crossing BitVectors, and again only
+   * if the length of the BitVectors changes.
+   */
+  public static final class SparseUniformCrossover implements CrossoverOperator<BitVector> {
+
+    private final double p;
+    private int[] pool;
+
+    /**
+     * Constructs a uniform crossover operator.
+     *
+     * @param p The per-bit probability of exchanging each bit between the parents in forming the
+     *     children.
+     */
+    public SparseUniformCrossover(double p) {
+      this.p = p <= 0.0 ? 0.0 : (p >= 1.0 ? 1.0 : p);
+    }
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      int n = c1.length();
+      if (pool == null || pool.length != n) {
+        pool = BitmaskGenerationExperiment.indexPool(n);
+      }
+      RandomGenerator r = RandomSource.current();
+      int k = RandomVariates.nextBinomial(n, p, r);
+      for (int j = 0; j < k; j++) {
+        int swap = r.nextInt(j, n);
+        int index = pool[swap];
+        pool[swap] = pool[j];
+        pool[j] = index;
+        // exchanging equal bits changes nothing
+        if (c1.getBit(index) != c2.getBit(index)) {
+          c1.flip(index);
+          c2.flip(index);
+        }
+      }
+    }
+
+    @Override
+    public SparseUniformCrossover split() {
+      // each instance needs its own pool
+      return new SparseUniformCrossover(p);
+    }
+  }
+
+  /**
+   * Uniform crossover that generates its mask from the indexes of a random sample of the bits,
+   * where the number of bits to exchange is drawn from a binomial distribution that is precomputed
+   * for the length of the BitVectors and the per-bit probability, rather than set up anew by each
+   * crossover. The distribution is computed when first crossing BitVectors, and again only if the
+   * length of the BitVectors changes.
+   */
+  public static final class CachedBinomialUniformCrossover implements CrossoverOperator<BitVector> {
+
+    private final double p;
+    private BinomialSampler binomial;
+
+    /**
+     * Constructs a uniform crossover operator.
+     *
+     * @param p The per-bit probability of exchanging each bit between the parents in forming the
+     *     children.
+     */
+    public CachedBinomialUniformCrossover(double p) {
+      this.p = p <= 0.0 ? 0.0 : (p >= 1.0 ? 1.0 : p);
+    }
+
+    /*
+     * internal copy constructor
+     */
+    private CachedBinomialUniformCrossover(CachedBinomialUniformCrossover other) {
+      p = other.p;
+      // the sampler is immutable, so the copies can share it
+      binomial = other.binomial;
+    }
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      int n = c1.length();
+      if (binomial == null || binomial.n() != n) {
+        binomial = new BinomialSampler(n, p);
+      }
+      RandomGenerator r = RandomSource.current();
+      BitVector mask = new BitVector(n);
+      for (int index : RandomSampler.sample(n, binomial.next(r), null, r)) {
+        mask.flip(index);
+      }
+      BitVector.exchangeBits(c1, c2, mask);
+    }
+
+    @Override
+    public CachedBinomialUniformCrossover split() {
+      return new CachedBinomialUniformCrossover(this);
+    }
+  }
 }
@@ -0,0 +1,115 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Bit-flip mutation that can report the change in the number of 1-bits that it causes, enabling
+ * incremental evaluation of fitness functions such as OneMax, or the number of bits that it flips,
+ * enabling skipping evaluation of unchanged BitVectors. The number of bits to flip is drawn from
+ * the binomial distribution, and the bits are chosen with a partial Fisher-Yates shuffle of a
+ * reusable pool of indexes, so a mutation allocates no memory after the first.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class DeltaBitFlipMutation implements MutationOperator<BitVector> {
+
+  private final double m;
+  private int[] pool;
+
+  /**
+   * Constructs a DeltaBitFlipMutation operator with a specified mutation rate.
+   *
+   * @param m The mutation rate, which is the probability of flipping any individual bit.
+   * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+   */
+  public DeltaBitFlipMutation(double m) {
+    if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+    this.m = m;
+  }
+
+  @Override
+  public void mutate(BitVector c) {
+    mutateCount(c);
+  }
+
+  /**
+   * Mutates a BitVector, and reports the number of bits flipped, which is 0 if the BitVector is
+   * unchanged.
+   *
+   * @param c the BitVector to mutate
+   * @return the number of bits flipped
+   */
+  public int mutateCount(BitVector c) {
+    int n = c.length();
+    RandomGenerator r = RandomSource.current();
+    int k = RandomVariates.nextBinomial(n, m, r);
+    int[] indexes = pool(n);
+    for (int j = 0; j < k; j++) {
+      int swap = r.nextInt(j, n);
+      int index = indexes[swap];
+      indexes[swap] = indexes[j];
+      indexes[j] = index;
+      c.flip(index);
+    }
+    return k;
+  }
+
+  /**
+   * Mutates a BitVector, and computes the change in its number of 1-bits.
+   *
+   * @param c the BitVector to mutate
+   * @return the number of 1-bits in c after the mutation minus the number before
+   */
+  public int mutateDelta(BitVector c) {
+    int n = c.length();
+    RandomGenerator r = RandomSource.current();
+    int k = RandomVariates.nextBinomial(n, m, r);
+    int[] indexes = pool(n);
+    int delta = 0;
+    for (int j = 0; j < k; j++) {
+      int swap = r.nextInt(j, n);
+      int index = indexes[swap];
+      indexes[swap] = indexes[j];
+      indexes[j] = index;
+      // a 1-bit flipped to 0 decreases the count, and a 0-bit flipped to 1 increases it
+      delta += 1 - (c.getBit(index) << 1);
+      c.flip(index);
+    }
+    return delta;
+  }
+
+  @Override
+  public DeltaBitFlipMutation split() {
+    // each instance needs its own pool
+    return new DeltaBitFlipMutation(m);
+  }
+
+  private int[] pool(int n) {
+    if (pool == null || pool.length != n) {
+      pool = BitmaskGenerationExperiment.indexPool(n);
+    }
+    return pool;
+  }
+}
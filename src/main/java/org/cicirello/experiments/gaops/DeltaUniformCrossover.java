@@ -0,0 +1,98 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Uniform crossover that can report the change in the number of 1-bits of the children that it
+ * causes, enabling incremental evaluation of fitness functions such as OneMax. The bit mask is
+ * generated with the binomial distribution into a reusable buffer, and the bits are exchanged 32 at
+ * a time. Since crossover only exchanges bits between the parents, the change in the number of
+ * 1-bits of the second child is always the negation of that of the first.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class DeltaUniformCrossover implements CrossoverOperator<BitVector> {
+
+  private final double u;
+  private int[] bits;
+  private int[] pool;
+
+  /**
+   * Constructs a uniform crossover operator.
+   *
+   * @param u The per-bit probability of exchanging each bit between the parents in forming the
+   *     children.
+   */
+  public DeltaUniformCrossover(double u) {
+    this.u = u <= 0.0 ? 0.0 : (u >= 1.0 ? 1.0 : u);
+  }
+
+  @Override
+  public void cross(BitVector c1, BitVector c2) {
+    int[] mask = mask(c1.length());
+    for (int i = 0; i < mask.length; i++) {
+      int w1 = c1.get32(i);
+      int w2 = c2.get32(i);
+      int exchange = (w1 ^ w2) & mask[i];
+      c1.set32(i, w1 ^ exchange);
+      c2.set32(i, w2 ^ exchange);
+    }
+  }
+
+  /**
+   * Crosses two BitVectors, and computes the change in the number of 1-bits of the first.
+   *
+   * @param c1 the first parent, which becomes the first child
+   * @param c2 the second parent, which becomes the second child
+   * @return the number of 1-bits in c1 after the crossover minus the number before, which is also
+   *     the number of 1-bits in c2 before the crossover minus the number after
+   */
+  public int crossDelta(BitVector c1, BitVector c2) {
+    int[] mask = mask(c1.length());
+    int delta = 0;
+    for (int i = 0; i < mask.length; i++) {
+      int w1 = c1.get32(i);
+      int w2 = c2.get32(i);
+      int exchange = (w1 ^ w2) & mask[i];
+      // the exchanged bits differ, so c1 gains the 1-bits of w2 and loses its own
+      delta += Integer.bitCount(exchange & w2) - Integer.bitCount(exchange & w1);
+      c1.set32(i, w1 ^ exchange);
+      c2.set32(i, w2 ^ exchange);
+    }
+    return delta;
+  }
+
+  @Override
+  public DeltaUniformCrossover split() {
+    // each instance needs its own buffers
+    return new DeltaUniformCrossover(u);
+  }
+
+  private int[] mask(int n) {
+    if (pool == null || pool.length != n) {
+      pool = BitmaskGenerationExperiment.indexPool(n);
+      bits = new int[(n + 31) >> 5];
+    }
+    return BitmaskGenerationExperiment.bitMaskOptimized(n, u, bits, pool);
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time of two alternative GAs that differ only in which members of the
+ * population have their fitness evaluated: every member every generation; vs only the members that
+ * were changed by crossover or mutation (see {@link DirtyFlagGA}). Selection does nothing, so that
+ * the results isolate the effect of skipping evaluations, and the fitness function simulates an
+ * expensive fitness function (see {@link GenerationLoopExperiment.TunableCostFitness}).
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class DirtyFlagExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of generations for each trial. */
+  private static final int GENERATIONS_PER_TRIAL = 1000;
+
+  /** Size of the population. */
+  private static final int POPULATION_SIZE = 100;
+
+  /** Length of the BitVectors. */
+  private static final int BIT_LENGTH = 1024;
+
+  /** Number of hash rounds per fitness evaluation. */
+  private static final int FITNESS_COST = 1000;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    GenerationLoopExperiment.TunableCostFitness fitness =
+        new GenerationLoopExperiment.TunableCostFitness(FITNESS_COST);
+    GenerationLoopExperiment.NoOpSelection selection =
+        new GenerationLoopExperiment.NoOpSelection();
+    BitVectorInitializer initializer = new BitVectorInitializer(BIT_LENGTH);
+    // mutation rates as multiples of 1/n
+    double[] M_VALUES = {1.0, 0.1};
+
+    DoubleList valuesOfC = new DoubleList();
+    double[] rates = {0.05, 0.15, 0.25, 0.35, 0.45, 0.55, 0.65, 0.75, 0.85, 0.95};
+    for (double c : rates) {
+      valuesOfC.add(c);
+    }
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (double mScale : M_VALUES) {
+      double m = mScale / BIT_LENGTH;
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+        GenerationalBitVectorGA full =
+            new GenerationalBitVectorGA(
+                POPULATION_SIZE,
+                new DeltaBitFlipMutation(m),
+                new DeltaUniformCrossover(0.5),
+                c,
+                initializer,
+                fitness,
+                selection);
+        DirtyFlagGA dirty =
+            new DirtyFlagGA(
+                POPULATION_SIZE,
+                new DeltaBitFlipMutation(m),
+                new DeltaUniformCrossover(0.5),
+                c,
+                initializer,
+                fitness,
+                selection);
+        useToPreventOptimizingAway += full.optimize(GENERATIONS_PER_TRIAL).countOnes();
+        useToPreventOptimizingAway += dirty.optimize(GENERATIONS_PER_TRIAL).countOnes();
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (double mScale : M_VALUES) {
+      double m = mScale / BIT_LENGTH;
+      System.out.printf("Mutation Rate M=%3.2f/n%n", mScale);
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%11s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
+          "c",
+          "full",
+          "dirty",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "%evaluated",
+          "full-MB",
+          "dirty-MB",
+          "full-gc",
+          "dirty-gc",
+          "full-gcms",
+          "dirty-gcms");
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own GAs, since operators are not thread-safe
+                  GenerationalBitVectorGA full =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          new DeltaBitFlipMutation(m),
+                          new DeltaUniformCrossover(0.5),
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  DirtyFlagGA dirty =
+                      new DirtyFlagGA(
+                          POPULATION_SIZE,
+                          new DeltaBitFlipMutation(m),
+                          new DeltaUniformCrossover(0.5),
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> full.optimize(GENERATIONS_PER_TRIAL).countOnes(),
+                    () -> {
+                      dirty.optimize(GENERATIONS_PER_TRIAL);
+                      return dirty.getEvaluations();
+                    }
+                  };
+                });
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        // the dirty flag trials return the number of fitness evaluations
+        double percentEvaluated =
+            100 * Statistics.mean(results.values()[1])
+                / ((GENERATIONS_PER_TRIAL + 1) * POPULATION_SIZE);
+
+        // times are converted to seconds during output
+        double timeFullSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeDirtySeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime = 100 * ((timeFullSeconds - timeDirtySeconds) / timeFullSeconds);
+
+        System.out.printf(
+            "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%10.2f%%\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
+            c,
+            timeFullSeconds,
+            timeDirtySeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            percentEvaluated,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]));
+      }
+      System.out.println();
+    }
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies evaluating every member is faster.");
+    System.out.println("2) Positive t value implies skipping unchanged members is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The %evaluated column is the percentage of evaluations not skipped.");
+    System.out.println("5) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.Arrays;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm for BitVectors that only evaluates the fitness of members of the
+ * population that were changed by crossover or mutation. Selection carries the fitness of each
+ * selected member forward along with its copy, and a member is marked as changed if it was passed
+ * to the crossover operator or if the mutation operator flipped at least one of its bits. With a
+ * low crossover rate and a low mutation rate, most members of the population are exact copies of
+ * their parents, so most fitness evaluations are skipped. Every stage of a generation is otherwise
+ * identical to that of {@link GenerationalBitVectorGA}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class DirtyFlagGA extends GenerationalBitVectorGA {
+
+  private final DeltaBitFlipMutation countingMutation;
+  private final boolean[] dirty;
+  private final int[] selectedFitness;
+  private boolean initialized;
+  private int evaluations;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param initializer initializes the population
+   * @param f the fitness function
+   * @param selection the selection operator
+   */
+  public DirtyFlagGA(
+      int populationSize,
+      DeltaBitFlipMutation mutation,
+      CrossoverOperator<BitVector> crossover,
+      double crossoverRate,
+      Initializer<BitVector> initializer,
+      FitnessFunction.Integer<BitVector> f,
+      SelectionOperator selection) {
+    super(populationSize, mutation, crossover, crossoverRate, initializer, f, selection);
+    countingMutation = mutation;
+    dirty = new boolean[populationSize];
+    selectedFitness = new int[populationSize];
+  }
+
+  @Override
+  public BitVector optimize(int generations) {
+    initialized = false;
+    evaluations = 0;
+    return super.optimize(generations);
+  }
+
+  /**
+   * Gets the number of fitness evaluations performed by the most recent call to {@link #optimize},
+   * including the evaluations of the initial population.
+   *
+   * @return the number of fitness evaluations
+   */
+  public int getEvaluations() {
+    return evaluations;
+  }
+
+  @Override
+  protected void select() {
+    super.select();
+    for (int i = 0; i < selected.length; i++) {
+      selectedFitness[i] = fitness[selected[i]];
+    }
+    System.arraycopy(selectedFitness, 0, fitness, 0, selectedFitness.length);
+    Arrays.fill(dirty, false);
+  }
+
+  @Override
+  protected void crossover(int count) {
+    super.crossover(count);
+    Arrays.fill(dirty, 0, count, true);
+  }
+
+  @Override
+  protected void mutate() {
+    for (int i = 0; i < population.length; i++) {
+      if (countingMutation.mutateCount(population[i]) > 0) {
+        dirty[i] = true;
+      }
+    }
+  }
+
+  /** Computes the fitness of the members of the population that have changed. */
+  @Override
+  protected void evaluate() {
+    if (initialized) {
+      for (int i = 0; i < population.length; i++) {
+        if (dirty[i]) {
+          fitness[i] = f.fitness(population[i]);
+          evaluations++;
+        }
+      }
+      updateBest();
+    } else {
+      // the initial population must be fully evaluated
+      super.evaluate();
+      evaluations += population.length;
+      initialized = true;
+    }
+  }
+}
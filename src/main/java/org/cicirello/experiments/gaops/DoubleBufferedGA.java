@@ -0,0 +1,280 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.PopulationFitnessVector;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm for BitVectors that neither allocates nor copies the members of
+ * the population during selection. The BitVectors of the population are allocated by the
+ * constructor: two buffers of populationSize BitVectors each, of which the current population uses
+ * at most one buffer's worth at a time. A population is an array of indexes into the buffers, and
+ * selection only copies indexes, so several members may share a BitVector. A member's bits are
+ * copied into a free BitVector only when crossover or mutation is about to modify it while it is
+ * shared (copy-on-write), and a reference count of each BitVector tracks which are free. The arrays
+ * of indexes of the current and next populations are swapped each generation.
+ *
+ * <p>Whether a member is modified must be known before it is modified, so the mutation stage is
+ * that of {@link MutationSkippingGA}: the members with at least one bit to flip are chosen with the
+ * binomial distribution, and only those are passed to a mutation operator that flips at least one
+ * bit. The crossover stage is that of {@link GenerationalBitVectorGA}, and every member of the
+ * population is evaluated every generation, as in GenerationalBitVectorGA.
+ *
+ * <p>The generations allocate nothing of their own. The best solution is copied into a BitVector
+ * allocated by the constructor, and the members to mutate are chosen with a partial Fisher-Yates
+ * shuffle of a reusable array of indexes. Each call to {@link #optimize} allocates only the
+ * BitVectors of the initial population, which the initializer creates and which are then copied
+ * into the buffers, and the BitVector that it returns. The operators and the selection operator may
+ * allocate memory of their own.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class DoubleBufferedGA {
+
+  private final BitVector[] buffers;
+  private final int[] references;
+  private final int[] free;
+  private int freeCount;
+  private int[] population;
+  private int[] nextPopulation;
+  private final int[] selected;
+  private final int[] fitness;
+  private final int[] indexes;
+  private final MutationOperator<BitVector> mutation;
+  private final double anyFlip;
+  private final CrossoverOperator<BitVector> crossover;
+  private final double crossoverRate;
+  private final Initializer<BitVector> initializer;
+  private final FitnessFunction.Integer<BitVector> f;
+  private final SelectionOperator selection;
+  private final PopulationFitnessVector.Integer fitnessVector;
+  private final BitVector best;
+  private int bestFitness;
+  private boolean hasBest;
+  private int copies;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param bitLength the length of the BitVectors
+   * @param mutation the mutation operator, which must flip at least one bit with the distribution
+   *     of bit-flip mutation with rate mutationRate conditioned on flipping at least one bit, and
+   *     which is applied only to the members of the population chosen for mutation
+   * @param mutationRate the probability of flipping any individual bit
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param initializer initializes the population, with BitVectors of length bitLength
+   * @param f the fitness function
+   * @param selection the selection operator
+   * @throws IllegalArgumentException if mutationRate &le; 0 or if mutationRate &ge; 1.
+   */
+  public DoubleBufferedGA(
+      int populationSize,
+      int bitLength,
+      MutationOperator<BitVector> mutation,
+      double mutationRate,
+      CrossoverOperator<BitVector> crossover,
+      double crossoverRate,
+      Initializer<BitVector> initializer,
+      FitnessFunction.Integer<BitVector> f,
+      SelectionOperator selection) {
+    if (mutationRate <= 0 || mutationRate >= 1) {
+      throw new IllegalArgumentException("mutationRate constrained by: 0.0 < m < 1.0");
+    }
+    buffers = new BitVector[2 * populationSize];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = new BitVector(bitLength);
+    }
+    references = new int[buffers.length];
+    free = new int[buffers.length];
+    population = new int[populationSize];
+    nextPopulation = new int[populationSize];
+    selected = new int[populationSize];
+    fitness = new int[populationSize];
+    indexes = BitmaskGenerationExperiment.indexPool(populationSize);
+    best = new BitVector(bitLength);
+    this.mutation = mutation;
+    anyFlip = AtLeastOneBitFlipMutation.probabilityOfAnyFlip(bitLength, mutationRate);
+    this.crossover = crossover;
+    this.crossoverRate = crossoverRate;
+    this.initializer = initializer;
+    this.f = f;
+    this.selection = selection;
+    fitnessVector =
+        new PopulationFitnessVector.Integer() {
+          @Override
+          public int getFitness(int i) {
+            return fitness[i];
+          }
+
+          @Override
+          public int size() {
+            return fitness.length;
+          }
+        };
+  }
+
+  /**
+   * Runs the genetic algorithm from a new random initial population.
+   *
+   * @param generations the number of generations
+   * @return a new BitVector equal to the best solution found
+   */
+  public BitVector optimize(int generations) {
+    hasBest = false;
+    copies = 0;
+    // the initial population is copied into the first buffer
+    freeCount = 0;
+    for (int b = buffers.length - 1; b >= population.length; b--) {
+      references[b] = 0;
+      free[freeCount++] = b;
+    }
+    for (int i = 0; i < population.length; i++) {
+      copyBits(initializer.createCandidateSolution(), buffers[i]);
+      references[i] = 1;
+      population[i] = i;
+    }
+    evaluate();
+    for (int g = 0; g < generations; g++) {
+      select();
+      crossover(RandomVariates.nextBinomial(population.length >> 1, crossoverRate) << 1);
+      mutate();
+      evaluate();
+    }
+    return best.copy();
+  }
+
+  /**
+   * Gets the fitness of the best solution found by the most recent call to {@link #optimize}.
+   *
+   * @return the fitness of the best solution
+   */
+  public int getBestFitness() {
+    return bestFitness;
+  }
+
+  /**
+   * Gets the number of times the bits of a member were copied by the most recent call to {@link
+   * #optimize}, not counting the initial population or the copies of the best solution.
+   *
+   * @return the number of copies
+   */
+  public int getCopies() {
+    return copies;
+  }
+
+  /*
+   * Selects the members of the next population by index, without copying any bits.
+   */
+  private void select() {
+    selection.select(fitnessVector, selected);
+    for (int i = 0; i < selected.length; i++) {
+      int b = population[selected[i]];
+      nextPopulation[i] = b;
+      references[b]++;
+    }
+    for (int b : population) {
+      if (--references[b] == 0) {
+        free[freeCount++] = b;
+      }
+    }
+    int[] temp = population;
+    population = nextPopulation;
+    nextPopulation = temp;
+  }
+
+  /*
+   * Crosses consecutive pairs of members of the population.
+   */
+  private void crossover(int count) {
+    for (int i = 1; i < count; i += 2) {
+      crossover.cross(modifiable(i - 1), modifiable(i));
+    }
+  }
+
+  /*
+   * Mutates the members of the population that have at least one bit flipped, which are chosen
+   * with a partial Fisher-Yates shuffle of the indexes.
+   */
+  private void mutate() {
+    RandomGenerator r = RandomSource.current();
+    int count = RandomVariates.nextBinomial(population.length, anyFlip, r);
+    for (int j = 0; j < count; j++) {
+      int swap = r.nextInt(j, population.length);
+      int i = indexes[swap];
+      indexes[swap] = indexes[j];
+      indexes[j] = i;
+      mutation.mutate(modifiable(i));
+    }
+  }
+
+  /*
+   * Computes the fitness of every member of the population.
+   */
+  private void evaluate() {
+    for (int i = 0; i < population.length; i++) {
+      fitness[i] = f.fitness(buffers[population[i]]);
+    }
+    for (int i = 0; i < population.length; i++) {
+      if (!hasBest || fitness[i] > bestFitness) {
+        bestFitness = fitness[i];
+        copyBits(buffers[population[i]], best);
+        hasBest = true;
+      }
+    }
+  }
+
+  /*
+   * Gets the BitVector of a member for modification, first copying its bits into a free
+   * BitVector if it is shared with other members.
+   */
+  private BitVector modifiable(int member) {
+    int b = population[member];
+    if (references[b] > 1) {
+      references[b]--;
+      int copy = free[--freeCount];
+      copyBits(buffers[b], buffers[copy]);
+      references[copy] = 1;
+      population[member] = copy;
+      copies++;
+      return buffers[copy];
+    }
+    return buffers[b];
+  }
+
+  /*
+   * Copies the bits of one BitVector into another of the same length, 32 bits at a time.
+   */
+  private static void copyBits(BitVector from, BitVector to) {
+    int length32 = (from.length() + 31) >> 5;
+    for (int i = 0; i < length32; i++) {
+      to.set32(i, from.get32(i));
+    }
+  }
+}
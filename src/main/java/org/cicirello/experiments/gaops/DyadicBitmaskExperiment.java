@@ -0,0 +1,278 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time of generating random bit masks 32 bits at a time, for dyadic
+ * probabilities of a 1-bit, and of a hybrid that rounds arbitrary probabilities to a dyadic
+ * approximation with a correction step, to the simple and optimized bit mask generation of {@link
+ * BitmaskGenerationExperiment}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class DyadicBitmaskExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of samples for each trial. Need multiple to ensure times are measurable. */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /*
+   * Generates SAMPLES_PER_TRIAL random bit masks with the simple version. Each version is timed by
+   * a method of its own, with a direct call of its generator, as in BitmaskGenerationExperiment, so
+   * that no call site is shared by the versions.
+   */
+  private static int simpleCodeToTime(int n, double u) {
+    int useToPreventOptimizingAway = 0;
+    for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+      int[] mask = BitmaskGenerationExperiment.bitMaskSimple(n, u);
+      useToPreventOptimizingAway += mask[k % mask.length];
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Generates SAMPLES_PER_TRIAL random bit masks with the optimized version.
+   */
+  private static int optimizedCodeToTime(int n, double u) {
+    int useToPreventOptimizingAway = 0;
+    for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+      int[] mask = BitmaskGenerationExperiment.bitMaskOptimized(n, u);
+      useToPreventOptimizingAway += mask[k % mask.length];
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Generates SAMPLES_PER_TRIAL random bit masks with the dyadic version.
+   */
+  private static int dyadicCodeToTime(int n, double u) {
+    int useToPreventOptimizingAway = 0;
+    for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+      int[] mask = BitmaskGenerationExperiment.bitMaskDyadic(n, u);
+      useToPreventOptimizingAway += mask[k % mask.length];
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Generates SAMPLES_PER_TRIAL random bit masks with the hybrid version.
+   */
+  private static int hybridCodeToTime(int n, double u) {
+    int useToPreventOptimizingAway = 0;
+    for (int k = 0; k < SAMPLES_PER_TRIAL; k++) {
+      int[] mask = BitmaskGenerationExperiment.bitMaskDyadicHybrid(n, u);
+      useToPreventOptimizingAway += mask[k % mask.length];
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    final int SIMPLE = 0;
+    final int OPTIMIZED = 1;
+    final int DYADIC = 2;
+    final int HYBRID = 3;
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      useToPreventOptimizingAway += simpleCodeToTime(1024, u);
+    }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      useToPreventOptimizingAway += optimizedCodeToTime(1024, u);
+    }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      useToPreventOptimizingAway += dyadicCodeToTime(1024, u);
+    }
+    for (double u = 1.0 / 1024; u - 0.5 <= 1E-10; u *= 2) {
+      useToPreventOptimizingAway += hybridCodeToTime(1024, u);
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    double[] nonDyadicRates = {0.1, 0.2, 0.3, 0.33, 0.4, 0.49};
+
+    for (int bitLength = 16; bitLength <= 1024; bitLength *= 2) {
+      DoubleList valuesOfU = new DoubleList();
+      for (double u = 1.0 / bitLength; u - 0.5 <= 1E-10; u *= 2) {
+        valuesOfU.add(u);
+      }
+      valuesOfU.add(0.625);
+      valuesOfU.add(0.75);
+      valuesOfU.add(0.875);
+      for (double u : nonDyadicRates) {
+        valuesOfU.add(u);
+      }
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%11s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "simple",
+          "optimized",
+          "dyadic",
+          "hybrid",
+          "%less-dyadic",
+          "t-dyadic",
+          "p-dyadic",
+          "%less-hybrid",
+          "t-hybrid",
+          "p-hybrid",
+          "simple-B",
+          "opt-B",
+          "dyadic-B",
+          "hybrid-B",
+          "simple-gc",
+          "opt-gc",
+          "dyadic-gc",
+          "hybrid-gc",
+          "simple-gcms",
+          "opt-gcms",
+          "dyadic-gcms",
+          "hybrid-gcms");
+      for (int i = 0; i < valuesOfU.size(); i++) {
+        double u = valuesOfU.get(i);
+        // dyadic bit mask generation is only applicable to the dyadic values of u
+        boolean dyadic = i < valuesOfU.size() - nonDyadicRates.length;
+        final int n = bitLength;
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () ->
+                    new ParallelTrialRunner.Trial[] {
+                      () -> simpleCodeToTime(n, u),
+                      () -> optimizedCodeToTime(n, u),
+                      // non-dyadic rates have no dyadic column, so that variant does nothing
+                      dyadic ? () -> dyadicCodeToTime(n, u) : () -> 0,
+                      () -> hybridCodeToTime(n, u)
+                    });
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        // times are converted to seconds during output
+        double[] seconds = new double[ms.length];
+        double[] bytesPerMask = new double[ms.length];
+        double[] collections = new double[ms.length];
+        double[] gcMillis = new double[ms.length];
+        for (int g = 0; g < ms.length; g++) {
+          seconds[g] = Statistics.mean(ms[g]) / 1000000000.0;
+          bytesPerMask[g] = Statistics.mean(results.bytes()[g]) / SAMPLES_PER_TRIAL;
+          collections[g] = Statistics.mean(results.gcCounts()[g]);
+          gcMillis[g] = Statistics.mean(results.gcTimes()[g]);
+        }
+        if (!dyadic) {
+          bytesPerMask[DYADIC] = collections[DYADIC] = gcMillis[DYADIC] = Double.NaN;
+        }
+        Number[] tTestHybrid = Statistics.tTestWelch(ms[OPTIMIZED], ms[HYBRID]);
+        double tHybrid = tTestHybrid[0].doubleValue();
+        double pHybrid = Statistics.p(tHybrid, tTestHybrid[1].intValue());
+        double percentLessHybrid =
+            100 * ((seconds[OPTIMIZED] - seconds[HYBRID]) / seconds[OPTIMIZED]);
+        if (dyadic) {
+          Number[] tTestDyadic = Statistics.tTestWelch(ms[OPTIMIZED], ms[DYADIC]);
+          double tDyadic = tTestDyadic[0].doubleValue();
+          double pDyadic = Statistics.p(tDyadic, tTestDyadic[1].intValue());
+          double percentLessDyadic =
+              100 * ((seconds[OPTIMIZED] - seconds[DYADIC]) / seconds[OPTIMIZED]);
+          System.out.printf(
+              "%4d\t%11.10f\t%12.3g\t%12.3g\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10.3g\t%10.2f%%\t%10.4f\t%10.3g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+              bitLength,
+              u,
+              seconds[SIMPLE],
+              seconds[OPTIMIZED],
+              seconds[DYADIC],
+              seconds[HYBRID],
+              percentLessDyadic,
+              tDyadic,
+              pDyadic,
+              percentLessHybrid,
+              tHybrid,
+              pHybrid,
+              bytesPerMask[SIMPLE],
+              bytesPerMask[OPTIMIZED],
+              bytesPerMask[DYADIC],
+              bytesPerMask[HYBRID],
+              collections[SIMPLE],
+              collections[OPTIMIZED],
+              collections[DYADIC],
+              collections[HYBRID],
+              gcMillis[SIMPLE],
+              gcMillis[OPTIMIZED],
+              gcMillis[DYADIC],
+              gcMillis[HYBRID]);
+        } else {
+          System.out.printf(
+              "%4d\t%11.10f\t%12.3g\t%12.3g\t%12s\t%12.3g\t%11s\t%10s\t%10s\t%10.2f%%\t%10.4f\t%10.3g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+              bitLength,
+              u,
+              seconds[SIMPLE],
+              seconds[OPTIMIZED],
+              "-",
+              seconds[HYBRID],
+              "-",
+              "-",
+              "-",
+              percentLessHybrid,
+              tHybrid,
+              pHybrid,
+              bytesPerMask[SIMPLE],
+              bytesPerMask[OPTIMIZED],
+              bytesPerMask[DYADIC],
+              bytesPerMask[HYBRID],
+              collections[SIMPLE],
+              collections[OPTIMIZED],
+              collections[DYADIC],
+              collections[HYBRID],
+              gcMillis[SIMPLE],
+              gcMillis[OPTIMIZED],
+              gcMillis[DYADIC],
+              gcMillis[HYBRID]);
+        }
+      }
+      System.out.println();
+    }
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) The t and %less columns compare the dyadic and hybrid versions");
+    System.out.println("   to the optimized version.");
+    System.out.println("2) Negative t value implies optimized version is faster.");
+    System.out.println("3) Positive t value implies dyadic (or hybrid) version is faster.");
+    System.out.println("4) The p column is, well, the p value.");
+    System.out.println("5) The dyadic version only applies to dyadic u (marked - otherwise).");
+    System.out.println("6) The -B columns are the bytes allocated per mask. The memory and");
+    System.out.println("   garbage collection columns of the dyadic version are NaN where it");
+    System.out.println("   does not apply.");
+    ParallelTrialRunner.printGcLegend(7);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.concurrent.atomic.LongAdder;
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.operators.bits.BitFlipMutation;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+import org.cicirello.search.operators.bits.UniformCrossover;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Experiment comparing CPU time of two alternative GAs for OneMax that differ only in whether
+ * fitness values are memoized in a bounded cache keyed by the contents of the BitVectors (see
+ * {@link CachedFitness}). The experiment uses both the cheap {@link GAExperiment.OneMaxFitness},
+ * which reveals the overhead of cache lookups, and the {@link
+ * GenerationLoopExperiment.TunableCostFitness} at several costs, which reveals the cost of fitness
+ * evaluation at which caching breaks even. The GA otherwise follows the setup of {@link
+ * GAExperiment}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class FitnessCacheExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of generations for each trial. */
+  private static final int GENERATIONS_PER_TRIAL = 1000;
+
+  /** Size of the population. */
+  private static final int POPULATION_SIZE = 100;
+
+  /** Maximum number of fitness values in the cache. */
+  private static final int CACHE_CAPACITY = 10 * POPULATION_SIZE;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    final int BIT_LENGTH = 1024;
+    final double MUTATION_RATE = 1.0 / BIT_LENGTH;
+    final double U = 0.49;
+    // extra rounds of hashing per fitness evaluation, where 0 is the cheap OneMaxFitness
+    int[] costs = {0, 100, 1000, 10000};
+    double[] rates = {0.05, 0.45, 0.85};
+    final int evaluations = (GENERATIONS_PER_TRIAL + 1) * POPULATION_SIZE;
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (int cost : costs) {
+      for (double c : rates) {
+        GenerationalBitVectorGA uncached =
+            new GenerationalBitVectorGA(
+                POPULATION_SIZE,
+                new BitFlipMutation(MUTATION_RATE),
+                new UniformCrossover(U),
+                c,
+                new BitVectorInitializer(BIT_LENGTH),
+                fitnessFunction(cost),
+                new StochasticUniversalSampling());
+        GenerationalBitVectorGA cached =
+            new GenerationalBitVectorGA(
+                POPULATION_SIZE,
+                new BitFlipMutation(MUTATION_RATE),
+                new UniformCrossover(U),
+                c,
+                new BitVectorInitializer(BIT_LENGTH),
+                cachedFitnessFunction(cost),
+                new StochasticUniversalSampling());
+        useToPreventOptimizingAway += uncached.optimize(GENERATIONS_PER_TRIAL).countOnes();
+        useToPreventOptimizingAway += cached.optimize(GENERATIONS_PER_TRIAL).countOnes();
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.printf(
+        "%5s\t%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
+        "cost",
+        "c",
+        "uncached",
+        "cached",
+        "%less-time",
+        "t",
+        "dof",
+        "p",
+        "%hits",
+        "evictions",
+        "uncached-MB",
+        "cached-MB",
+        "uncached-gc",
+        "cached-gc",
+        "uncached-gcms",
+        "cached-gcms");
+    for (int cost : costs) {
+      for (double c : rates) {
+        // evictions of the caches of all threads, summed over the trials
+        LongAdder evictionCount = new LongAdder();
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own GAs and caches, since neither is thread-safe
+                  GenerationalBitVectorGA uncached =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          new BitFlipMutation(MUTATION_RATE),
+                          new UniformCrossover(U),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitnessFunction(cost),
+                          new StochasticUniversalSampling());
+                  CachedFitness cache = cachedFitnessFunction(cost);
+                  GenerationalBitVectorGA cached =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          new BitFlipMutation(MUTATION_RATE),
+                          new UniformCrossover(U),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          cache,
+                          new StochasticUniversalSampling());
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> uncached.optimize(GENERATIONS_PER_TRIAL).countOnes(),
+                    () -> {
+                      cache.clear();
+                      cached.optimize(GENERATIONS_PER_TRIAL);
+                      evictionCount.add(cache.evictions());
+                      return (int) cache.hits();
+                    }
+                  };
+                });
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        // the cached trials return the number of hits
+        double hits = Statistics.mean(results.values()[1]);
+        double percentHits = 100 * hits / evaluations;
+        double evictions = evictionCount.sum() / (double) TRIALS;
+
+        // times are converted to seconds during output
+        double timeUncachedSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeCachedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeUncachedSeconds - timeCachedSeconds) / timeUncachedSeconds);
+
+        System.out.printf(
+            "%5d\t%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%9.2f%%\t%10.1f\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
+            cost,
+            c,
+            timeUncachedSeconds,
+            timeCachedSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            percentHits,
+            evictions,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]));
+      }
+    }
+    System.out.println();
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies uncached version is faster.");
+    System.out.println("2) Positive t value implies cached version is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The cost column is the number of hash rounds per evaluation, and a");
+    System.out.println("   cost of 0 is OneMax.");
+    System.out.println("5) The %hits and evictions columns are averages per trial.");
+    System.out.println("6) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(7);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /*
+   * Creates the fitness function of a specified cost, where a cost of 0 is OneMax.
+   */
+  private static FitnessFunction.Integer<BitVector> fitnessFunction(int cost) {
+    return cost == 0
+        ? new GAExperiment.OneMaxFitness()
+        : new GenerationLoopExperiment.TunableCostFitness(cost);
+  }
+
+  /*
+   * Creates a cache of the fitness function of a specified cost, where a cost of 0 is OneMax.
+   */
+  private static CachedFitness cachedFitnessFunction(int cost) {
+    return cost == 0
+        ? new CachedFitness(new GAExperiment.OneMaxFitness(), CACHE_CAPACITY)
+        : new CachedFitness(new GenerationLoopExperiment.TunableCostFitness(cost), CACHE_CAPACITY);
+  }
+}
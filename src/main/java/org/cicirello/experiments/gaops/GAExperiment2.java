@@ -18,8 +18,6 @@
 
 package org.cicirello.experiments.gaops;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
 import java.util.ArrayList;
 import org.cicirello.math.stats.Statistics;
 import org.cicirello.search.ProgressTracker;
@@ -68,7 +66,7 @@ public class GAExperiment2 {
    */
   public static void main(String[] args) {
 
-    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    ParallelTrialRunner runner = new ParallelTrialRunner();
     int useToPreventOptimizingAway = 0;
 
     OneMaxFitness fitness = new OneMaxFitness();
@@ -122,7 +120,7 @@ public class GAExperiment2 {
     for (CrossoverOperator<BitVector> crossover : xover) {
       System.out.printf("%s%n", crossover.getClass().getSimpleName());
       System.out.printf(
-          "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s%n",
+          "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
           "c",
           "simple",
           "optimized",
@@ -134,47 +132,59 @@ public class GAExperiment2 {
           "opt-calls",
           "t-calls",
           "dof-calls",
-          "p-calls");
+          "p-calls",
+          "simple-MB",
+          "opt-MB",
+          "simple-gc",
+          "opt-gc",
+          "simple-gcms",
+          "opt-gcms");
       for (int i = 0; i < valuesOfC.size(); i++) {
         double c = valuesOfC.get(i);
 
-        @SuppressWarnings("deprecation")
-        NaiveGenerationalEvolutionaryAlgorithm<BitVector> simple =
-            new NaiveGenerationalEvolutionaryAlgorithm<BitVector>(
-                POPULATION_SIZE,
-                new MutationExperiment.SimpleBitFlipMutation(MUTATION_RATE),
-                1,
-                crossover.split(),
-                c,
-                new BitVectorInitializer(BIT_LENGTH),
-                fitness,
-                new StochasticUniversalSampling());
-        GenerationalEvolutionaryAlgorithm<BitVector> optimized =
-            new GenerationalEvolutionaryAlgorithm<BitVector>(
-                POPULATION_SIZE,
-                new BitFlipMutation(MUTATION_RATE),
-                1,
-                crossover.split(),
-                c,
-                new BitVectorInitializer(BIT_LENGTH),
-                fitness,
-                new StochasticUniversalSampling());
-        double[][] ms = new double[2][TRIALS];
-        int[][] onesCounts = new int[2][TRIALS];
-        for (int j = 0; j < TRIALS; j++) {
-          long start = bean.getCurrentThreadCpuTime();
-          SolutionCostPair<BitVector> s1 = simple.optimize(GENERATIONS_PER_TRIAL);
-          long middle = bean.getCurrentThreadCpuTime();
-          SolutionCostPair<BitVector> s2 = optimized.optimize(GENERATIONS_PER_TRIAL);
-          long end = bean.getCurrentThreadCpuTime();
-          // compute elapsed times in nanoseconds
-          ms[0][j] = (middle - start);
-          ms[1][j] = (end - middle);
-          onesCounts[0][j] = fitness.value(s1.getSolution());
-          onesCounts[1][j] = fitness.value(s2.getSolution());
-          simple.setProgressTracker(new ProgressTracker<BitVector>());
-          optimized.setProgressTracker(new ProgressTracker<BitVector>());
-        }
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own GAs, since operators are not thread-safe
+                  @SuppressWarnings("deprecation")
+                  NaiveGenerationalEvolutionaryAlgorithm<BitVector> simple =
+                      new NaiveGenerationalEvolutionaryAlgorithm<BitVector>(
+                          POPULATION_SIZE,
+                          new MutationExperiment.SimpleBitFlipMutation(MUTATION_RATE),
+                          1,
+                          crossover.split(),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitness,
+                          new StochasticUniversalSampling());
+                  GenerationalEvolutionaryAlgorithm<BitVector> optimized =
+                      new GenerationalEvolutionaryAlgorithm<BitVector>(
+                          POPULATION_SIZE,
+                          new BitFlipMutation(MUTATION_RATE),
+                          1,
+                          crossover.split(),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitness,
+                          new StochasticUniversalSampling());
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> {
+                      SolutionCostPair<BitVector> s1 = simple.optimize(GENERATIONS_PER_TRIAL);
+                      simple.setProgressTracker(new ProgressTracker<BitVector>());
+                      return fitness.value(s1.getSolution());
+                    },
+                    () -> {
+                      SolutionCostPair<BitVector> s2 = optimized.optimize(GENERATIONS_PER_TRIAL);
+                      optimized.setProgressTracker(new ProgressTracker<BitVector>());
+                      return fitness.value(s2.getSolution());
+                    }
+                  };
+                });
+        double[][] ms = results.times();
+        // the trials return the number of ones in the best solutions
+        int[][] onesCounts = results.values();
+        useToPreventOptimizingAway += results.sum();
 
         Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
         double t = tTest[0].doubleValue();
@@ -193,7 +203,7 @@ public class GAExperiment2 {
             100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
 
         System.out.printf(
-            "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.2f\t%12.2f\t%10.4f\t%10d\t%10.3g%n",
+            "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.2f\t%12.2f\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
             c,
             timeSimpleSeconds,
             timeOptimizedSeconds,
@@ -205,7 +215,13 @@ public class GAExperiment2 {
             Statistics.mean(onesCounts[1]),
             tCounts,
             dofCounts,
-            pCounts);
+            pCounts,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]));
       }
       System.out.println();
     }
@@ -214,9 +230,12 @@ public class GAExperiment2 {
     System.out.println("1) Negative t value implies simple version is faster.");
     System.out.println("2) Positive t value implies optimized version is faster.");
     System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(5);
 
     System.out.println(
         "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
   }
 
   /**
@@ -18,8 +18,6 @@
 
 package org.cicirello.experiments.gaops;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
 import org.cicirello.math.stats.Statistics;
 import org.cicirello.search.ProgressTracker;
 import org.cicirello.search.evo.FitnessFunction;
@@ -37,7 +35,12 @@ import org.cicirello.util.DoubleList;
 /**
  * Experiment comparing CPU time of two alternative implementations of the logic of a generation
  * (e.g., using the binomial optimization to determine which pairs of population members undergo
- * crossover, vs the typical iterate over pairs approach).
+ * crossover, vs the typical iterate over pairs approach). It then compares both of these, at
+ * several population sizes, to a third that selects members by index and copies a member only
+ * before modifying it ({@link DoubleBufferedGA}). It also compares passing every member of the
+ * population to mutation against using the binomial distribution to choose which members have at
+ * least one bit flipped, and only passing those to a mutation conditioned on flipping a bit ({@link
+ * MutationSkippingGA}).
  *
  * <p>Vincent A. Cicirello. Optimizing Genetic Algorithms Using the Binomial Distribution.
  * <i>Proceedings of the 16th International Joint Conference on Computational Intelligence</i>,
@@ -54,9 +57,30 @@ public class GenerationLoopExperiment {
   /** Number of generations for each trial. */
   private static final int GENERATIONS_PER_TRIAL = 100000;
 
+  /**
+   * Number of generations for each trial of the population size experiments, for a population of
+   * size POPULATION_SIZE.
+   */
+  private static final int SWEEP_GENERATIONS_PER_TRIAL = 10000;
+
+  /** Number of generations for each trial of the mutation stage experiments. */
+  private static final int MUTATION_GENERATIONS_PER_TRIAL = 10000;
+
   /** Size of the population. */
   private static final int POPULATION_SIZE = 200;
 
+  /** Sizes of the population of the population size experiments. */
+  private static final int[] POPULATION_SIZES = {200, 2000, 20000};
+
+  /** Length of the BitVectors of the population size experiments. */
+  private static final int BIT_LENGTH = 1024;
+
+  /** Bit lengths of the mutation stage experiments. */
+  private static final int[] MUTATION_BIT_LENGTHS = {64, 1024, 16384};
+
+  /** Mutation rates of the mutation stage experiments, as multiples of 1/n. */
+  private static final double[] MUTATION_RATES_TIMES_N = {0.25, 0.5, 1, 2, 4};
+
   /**
    * Runs the experiment.
    *
@@ -64,7 +88,7 @@ public class GenerationLoopExperiment {
    */
   public static void main(String[] args) {
 
-    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    ParallelTrialRunner runner = new ParallelTrialRunner();
     int useToPreventOptimizingAway = 0;
     NoOpMutation mutation = new NoOpMutation();
     NoOpCrossover crossover1 = new NoOpCrossover();
@@ -73,11 +97,7 @@ public class GenerationLoopExperiment {
     NoOpFitness fitness = new NoOpFitness();
     NoOpSelection selection = new NoOpSelection();
 
-    DoubleList valuesOfC = new DoubleList();
-    double[] rates = {0.05, 0.15, 0.25, 0.35, 0.45, 0.55, 0.65, 0.75, 0.85, 0.95};
-    for (double c : rates) {
-      valuesOfC.add(c);
-    }
+    DoubleList valuesOfC = crossoverRates();
 
     // NEED TO WARM UP JIT HERE.
     System.out.println("Warming up the Java JIT");
@@ -101,7 +121,7 @@ public class GenerationLoopExperiment {
     System.out.println();
 
     System.out.printf(
-        "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s%n",
+        "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
         "c",
         "simple",
         "optimized",
@@ -113,36 +133,50 @@ public class GenerationLoopExperiment {
         "opt-calls",
         "t-calls",
         "dof-calls",
-        "p-calls");
+        "p-calls",
+        "simple-MB",
+        "opt-MB",
+        "simple-gc",
+        "opt-gc",
+        "simple-gcms",
+        "opt-gcms");
     for (int i = 0; i < valuesOfC.size(); i++) {
       double c = valuesOfC.get(i);
 
-      @SuppressWarnings("deprecation")
-      NaiveGenerationalEvolutionaryAlgorithm<BitVector> simple =
-          new NaiveGenerationalEvolutionaryAlgorithm<BitVector>(
-              POPULATION_SIZE, mutation, 1, crossover1, c, initializer, fitness, selection);
-      GenerationalEvolutionaryAlgorithm<BitVector> optimized =
-          new GenerationalEvolutionaryAlgorithm<BitVector>(
-              POPULATION_SIZE, mutation, 1, crossover2, c, initializer, fitness, selection);
-      double[][] ms = new double[2][TRIALS];
-      int[][] crossCounts = new int[2][TRIALS];
-      for (int j = 0; j < TRIALS; j++) {
-        crossover1.reset();
-        crossover2.reset();
-        long start = bean.getCurrentThreadCpuTime();
-        useToPreventOptimizingAway += simple.optimize(GENERATIONS_PER_TRIAL).getCost();
-        long middle = bean.getCurrentThreadCpuTime();
-        useToPreventOptimizingAway += optimized.optimize(GENERATIONS_PER_TRIAL).getCost();
-        long end = bean.getCurrentThreadCpuTime();
-        // compute elapsed times in nanoseconds
-        ms[0][j] = (middle - start);
-        ms[1][j] = (end - middle);
-        crossCounts[0][j] = crossover1.count();
-        crossCounts[1][j] = crossover2.count();
-        useToPreventOptimizingAway += mutation.state();
-        simple.setProgressTracker(new ProgressTracker<BitVector>());
-        optimized.setProgressTracker(new ProgressTracker<BitVector>());
-      }
+      ParallelTrialRunner.Results results =
+          runner.run(
+              TRIALS,
+              () -> {
+                // each thread needs its own operators, since they count calls
+                NoOpMutation m = new NoOpMutation();
+                NoOpCrossover cross1 = new NoOpCrossover();
+                NoOpCrossover cross2 = new NoOpCrossover();
+                @SuppressWarnings("deprecation")
+                NaiveGenerationalEvolutionaryAlgorithm<BitVector> simple =
+                    new NaiveGenerationalEvolutionaryAlgorithm<BitVector>(
+                        POPULATION_SIZE, m, 1, cross1, c, initializer, fitness, selection);
+                GenerationalEvolutionaryAlgorithm<BitVector> optimized =
+                    new GenerationalEvolutionaryAlgorithm<BitVector>(
+                        POPULATION_SIZE, m, 1, cross2, c, initializer, fitness, selection);
+                return new ParallelTrialRunner.Trial[] {
+                  () -> {
+                    cross1.reset();
+                    simple.optimize(GENERATIONS_PER_TRIAL);
+                    simple.setProgressTracker(new ProgressTracker<BitVector>());
+                    return cross1.count();
+                  },
+                  () -> {
+                    cross2.reset();
+                    optimized.optimize(GENERATIONS_PER_TRIAL);
+                    optimized.setProgressTracker(new ProgressTracker<BitVector>());
+                    return cross2.count();
+                  }
+                };
+              });
+      double[][] ms = results.times();
+      // the trials return the number of crossover calls
+      int[][] crossCounts = results.values();
+      useToPreventOptimizingAway += results.sum();
 
       Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
       double t = tTest[0].doubleValue();
@@ -161,7 +195,7 @@ public class GenerationLoopExperiment {
           100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
 
       System.out.printf(
-          "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g%n",
+          "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
           c,
           timeSimpleSeconds,
           timeOptimizedSeconds,
@@ -173,17 +207,459 @@ public class GenerationLoopExperiment {
           Statistics.mean(crossCounts[1]),
           tCounts,
           dofCounts,
-          pCounts);
+          pCounts,
+          Statistics.mean(results.bytes()[0]) / 1000000.0,
+          Statistics.mean(results.bytes()[1]) / 1000000.0,
+          Statistics.mean(results.gcCounts()[0]),
+          Statistics.mean(results.gcCounts()[1]),
+          Statistics.mean(results.gcTimes()[0]),
+          Statistics.mean(results.gcTimes()[1]));
     }
     System.out.println();
 
+    useToPreventOptimizingAway += populationSizes(runner);
+    useToPreventOptimizingAway += mutationStage(runner);
+
     System.out.println("Interpreting Above Results:");
     System.out.println("1) Negative t value implies simple version is faster.");
     System.out.println("2) Positive t value implies optimized version is faster.");
     System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) In the second table, the buffered version selects by index and copies");
+    System.out.println("   a member only before modifying it. Positive t-buf implies buffered is");
+    System.out.println("   faster than optimized. All three versions pass each member to mutation");
+    System.out.println("   with the probability that mutation with rate 1/n flips any of its n");
+    System.out.println("   bits. The -ns columns are the CPU time per generation, and the number");
+    System.out.println("   of generations per trial is scaled inversely with P.");
+    System.out.println("5) In the third table, the every version mutates every member, and the");
+    System.out.println("   skipping version only the members with at least one bit to flip.");
+    System.out.println("   Positive t implies skipping is faster. The -calls columns are the");
+    System.out.println("   calls to mutation per trial, and the -real columns are the times");
+    System.out.println("   with geometric bit-flip mutation in place of the no-op mutation.");
+    System.out.println("6) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(7);
 
     System.out.println(
         "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /*
+   * Gets the crossover rates of the generation loop experiments.
+   */
+  private static DoubleList crossoverRates() {
+    DoubleList valuesOfC = new DoubleList();
+    double[] rates = {0.05, 0.15, 0.25, 0.35, 0.45, 0.55, 0.65, 0.75, 0.85, 0.95};
+    for (double c : rates) {
+      valuesOfC.add(c);
+    }
+    return valuesOfC;
+  }
+
+  /*
+   * Times the generation loop of the simple, optimized, and double-buffered versions at several
+   * population sizes, with BitVectors of length BIT_LENGTH, and returns a meaningless value
+   * dependent on the results. All three versions pass each member to mutation with the same
+   * probability: that of bit-flip mutation with rate 1/BIT_LENGTH flipping any bit.
+   */
+  private static int populationSizes(ParallelTrialRunner runner) {
+    int useToPreventOptimizingAway = 0;
+    NoOpMutation mutation = new NoOpMutation();
+    NoOpCrossover crossover1 = new NoOpCrossover();
+    NoOpCrossover crossover2 = new NoOpCrossover();
+    NoOpCrossover crossover3 = new NoOpCrossover();
+    BitVectorInitializer initializer = new BitVectorInitializer(BIT_LENGTH);
+    NoOpFitness fitness = new NoOpFitness();
+    NoOpSelection selection = new NoOpSelection();
+    double mutationRate = 1.0 / BIT_LENGTH;
+    // the probability that a member is passed to mutation, which DoubleBufferedGA derives from
+    // the mutation rate, and which the library's versions take directly
+    double anyFlip = AtLeastOneBitFlipMutation.probabilityOfAnyFlip(BIT_LENGTH, mutationRate);
+
+    DoubleList valuesOfC = crossoverRates();
+
+    System.out.println("Warming up the Java JIT");
+    for (int i = 0; i < valuesOfC.size(); i++) {
+      double c = valuesOfC.get(i);
+      crossover1.reset();
+      crossover2.reset();
+      crossover3.reset();
+
+      @SuppressWarnings("deprecation")
+      NaiveGenerationalEvolutionaryAlgorithm<BitVector> simple =
+          new NaiveGenerationalEvolutionaryAlgorithm<BitVector>(
+              POPULATION_SIZE, mutation, anyFlip, crossover1, c, initializer, fitness, selection);
+      GenerationalEvolutionaryAlgorithm<BitVector> optimized =
+          new GenerationalEvolutionaryAlgorithm<BitVector>(
+              POPULATION_SIZE, mutation, anyFlip, crossover2, c, initializer, fitness, selection);
+      DoubleBufferedGA buffered =
+          new DoubleBufferedGA(
+              POPULATION_SIZE,
+              BIT_LENGTH,
+              mutation,
+              mutationRate,
+              crossover3,
+              c,
+              initializer,
+              fitness,
+              selection);
+      useToPreventOptimizingAway += simple.optimize(SWEEP_GENERATIONS_PER_TRIAL).getCost();
+      useToPreventOptimizingAway += optimized.optimize(SWEEP_GENERATIONS_PER_TRIAL).getCost();
+      useToPreventOptimizingAway += buffered.optimize(SWEEP_GENERATIONS_PER_TRIAL).countOnes();
+      useToPreventOptimizingAway +=
+          mutation.state() + crossover1.count() + crossover2.count() + crossover3.count();
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.printf(
+        "%5s\t%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+        "P",
+        "c",
+        "simple",
+        "optimized",
+        "%less-time",
+        "t",
+        "dof",
+        "p",
+        "simple-calls",
+        "opt-calls",
+        "t-calls",
+        "dof-calls",
+        "p-calls",
+        "buffered",
+        "t-buf",
+        "dof-buf",
+        "p-buf",
+        "simple-ns",
+        "opt-ns",
+        "buf-ns",
+        "simple-MB",
+        "opt-MB",
+        "buf-MB",
+        "simple-gc",
+        "opt-gc",
+        "buf-gc",
+        "simple-gcms",
+        "opt-gcms",
+        "buf-gcms");
+    for (int populationSize : POPULATION_SIZES) {
+      // the number of generations is scaled so that each trial processes the same number of
+      // members
+      int generations = SWEEP_GENERATIONS_PER_TRIAL * POPULATION_SIZE / populationSize;
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own operators, since they count calls
+                  NoOpMutation m = new NoOpMutation();
+                  NoOpCrossover cross1 = new NoOpCrossover();
+                  NoOpCrossover cross2 = new NoOpCrossover();
+                  NoOpCrossover cross3 = new NoOpCrossover();
+                  @SuppressWarnings("deprecation")
+                  NaiveGenerationalEvolutionaryAlgorithm<BitVector> simple =
+                      new NaiveGenerationalEvolutionaryAlgorithm<BitVector>(
+                          populationSize, m, anyFlip, cross1, c, initializer, fitness, selection);
+                  GenerationalEvolutionaryAlgorithm<BitVector> optimized =
+                      new GenerationalEvolutionaryAlgorithm<BitVector>(
+                          populationSize, m, anyFlip, cross2, c, initializer, fitness, selection);
+                  DoubleBufferedGA buffered =
+                      new DoubleBufferedGA(
+                          populationSize,
+                          BIT_LENGTH,
+                          m,
+                          mutationRate,
+                          cross3,
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> {
+                      cross1.reset();
+                      simple.optimize(generations);
+                      simple.setProgressTracker(new ProgressTracker<BitVector>());
+                      return cross1.count();
+                    },
+                    () -> {
+                      cross2.reset();
+                      optimized.optimize(generations);
+                      optimized.setProgressTracker(new ProgressTracker<BitVector>());
+                      return cross2.count();
+                    },
+                    () -> {
+                      cross3.reset();
+                      buffered.optimize(generations);
+                      return cross3.count();
+                    }
+                  };
+                });
+        double[][] ms = results.times();
+        // the trials return the number of crossover calls
+        int[][] crossCounts = results.values();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        Number[] tTestCounts = Statistics.tTestWelch(crossCounts[0], crossCounts[1]);
+        double tCounts = tTestCounts[0].doubleValue();
+        int dofCounts = tTestCounts[1].intValue();
+        double pCounts = Statistics.p(tCounts, dofCounts);
+
+        Number[] tTestBuffered = Statistics.tTestWelch(ms[1], ms[2]);
+        double tBuffered = tTestBuffered[0].doubleValue();
+        int dofBuffered = tTestBuffered[1].intValue();
+        double pBuffered = Statistics.p(tBuffered, dofBuffered);
+
+        // times are converted to seconds during output
+        double timeSimpleSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeOptimizedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double timeBufferedSeconds = Statistics.mean(ms[2]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
+
+        System.out.printf(
+            "%5d\t%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.4g\t%12.4g\t%12.4g\t%12.3f\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+            populationSize,
+            c,
+            timeSimpleSeconds,
+            timeOptimizedSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            Statistics.mean(crossCounts[0]),
+            Statistics.mean(crossCounts[1]),
+            tCounts,
+            dofCounts,
+            pCounts,
+            timeBufferedSeconds,
+            tBuffered,
+            dofBuffered,
+            pBuffered,
+            Statistics.mean(ms[0]) / generations,
+            Statistics.mean(ms[1]) / generations,
+            Statistics.mean(ms[2]) / generations,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.bytes()[2]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcCounts()[2]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]),
+            Statistics.mean(results.gcTimes()[2]));
+      }
+      System.out.println();
+    }
+
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Times the mutation stage of the generation loop, with mutation applied to every member vs
+   * to only the members chosen for mutation with the binomial distribution, and returns a
+   * meaningless value dependent on the results.
+   */
+  private static int mutationStage(ParallelTrialRunner runner) {
+    int useToPreventOptimizingAway = 0;
+    NoOpFitness fitness = new NoOpFitness();
+    NoOpSelection selection = new NoOpSelection();
+    // crossover does nothing, so its rate only affects the time of the crossover loop
+    double c = 0.95;
+
+    System.out.println("Warming up the Java JIT");
+    for (double mTimesN : MUTATION_RATES_TIMES_N) {
+      BitVectorInitializer initializer = new BitVectorInitializer(1024);
+      double m = mTimesN / 1024;
+      GenerationalBitVectorGA every =
+          new GenerationalBitVectorGA(
+              POPULATION_SIZE,
+              new MutationExperiment.GeometricBitFlipMutation(m),
+              new NoOpCrossover(),
+              c,
+              initializer,
+              fitness,
+              selection);
+      MutationSkippingGA skipping =
+          new MutationSkippingGA(
+              POPULATION_SIZE,
+              new AtLeastOneBitFlipMutation(m),
+              m,
+              new NoOpCrossover(),
+              c,
+              initializer,
+              fitness,
+              selection);
+      useToPreventOptimizingAway += every.optimize(MUTATION_GENERATIONS_PER_TRIAL).countOnes();
+      useToPreventOptimizingAway += skipping.optimize(MUTATION_GENERATIONS_PER_TRIAL).countOnes();
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.printf(
+        "%5s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+        "n",
+        "m",
+        "every",
+        "skipping",
+        "%less-time",
+        "t",
+        "dof",
+        "p",
+        "every-calls",
+        "skip-calls",
+        "t-calls",
+        "dof-calls",
+        "p-calls",
+        "every-real",
+        "skip-real",
+        "t-real",
+        "dof-real",
+        "p-real",
+        "every-MB",
+        "skip-MB",
+        "every-real-MB",
+        "skip-real-MB",
+        "every-gc",
+        "skip-gc",
+        "every-real-gc",
+        "skip-real-gc",
+        "every-gcms",
+        "skip-gcms",
+        "every-real-gcms",
+        "skip-real-gcms");
+    for (int n : MUTATION_BIT_LENGTHS) {
+      BitVectorInitializer initializer = new BitVectorInitializer(n);
+      for (double mTimesN : MUTATION_RATES_TIMES_N) {
+        double m = mTimesN / n;
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own operators, since they count calls
+                  NoOpMutation m1 = new NoOpMutation();
+                  NoOpMutation m2 = new NoOpMutation();
+                  GenerationalBitVectorGA every =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          m1,
+                          new NoOpCrossover(),
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  MutationSkippingGA skipping =
+                      new MutationSkippingGA(
+                          POPULATION_SIZE,
+                          m2,
+                          m,
+                          new NoOpCrossover(),
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  GenerationalBitVectorGA everyReal =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          new MutationExperiment.GeometricBitFlipMutation(m),
+                          new NoOpCrossover(),
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  MutationSkippingGA skippingReal =
+                      new MutationSkippingGA(
+                          POPULATION_SIZE,
+                          new AtLeastOneBitFlipMutation(m),
+                          m,
+                          new NoOpCrossover(),
+                          c,
+                          initializer,
+                          fitness,
+                          selection);
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> {
+                      m1.reset();
+                      every.optimize(MUTATION_GENERATIONS_PER_TRIAL);
+                      return m1.state();
+                    },
+                    () -> {
+                      m2.reset();
+                      skipping.optimize(MUTATION_GENERATIONS_PER_TRIAL);
+                      return m2.state();
+                    },
+                    () -> everyReal.optimize(MUTATION_GENERATIONS_PER_TRIAL).countOnes(),
+                    () -> skippingReal.optimize(MUTATION_GENERATIONS_PER_TRIAL).countOnes()
+                  };
+                });
+        double[][] ms = results.times();
+        // the first two trials return the number of mutation calls
+        int[][] mutationCounts = results.values();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        Number[] tTestCounts = Statistics.tTestWelch(mutationCounts[0], mutationCounts[1]);
+        double tCounts = tTestCounts[0].doubleValue();
+        int dofCounts = tTestCounts[1].intValue();
+        double pCounts = Statistics.p(tCounts, dofCounts);
+
+        Number[] tTestReal = Statistics.tTestWelch(ms[2], ms[3]);
+        double tReal = tTestReal[0].doubleValue();
+        int dofReal = tTestReal[1].intValue();
+        double pReal = Statistics.p(tReal, dofReal);
+
+        // times are converted to seconds during output
+        double timeEverySeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeSkippingSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeEverySeconds - timeSkippingSeconds) / timeEverySeconds);
+
+        System.out.printf(
+            "%5d\t%12.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            n,
+            m,
+            timeEverySeconds,
+            timeSkippingSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            Statistics.mean(mutationCounts[0]),
+            Statistics.mean(mutationCounts[1]),
+            tCounts,
+            dofCounts,
+            pCounts,
+            Statistics.mean(ms[2]) / 1000000000.0,
+            Statistics.mean(ms[3]) / 1000000000.0,
+            tReal,
+            dofReal,
+            pReal,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.bytes()[2]) / 1000000.0,
+            Statistics.mean(results.bytes()[3]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcCounts()[2]),
+            Statistics.mean(results.gcCounts()[3]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]),
+            Statistics.mean(results.gcTimes()[2]),
+            Statistics.mean(results.gcTimes()[3]));
+      }
+      System.out.println();
+    }
+    return useToPreventOptimizingAway;
   }
 
   /**
@@ -191,7 +667,7 @@ public class GenerationLoopExperiment {
    * the effects of optimizing the generation loop, so using a mutation that does nothing to
    * eliminate the time effects of mutation.
    */
-  private static final class NoOpMutation implements MutationOperator<BitVector> {
+  static final class NoOpMutation implements MutationOperator<BitVector> {
 
     private int state;
 
@@ -215,6 +691,11 @@ public class GenerationLoopExperiment {
     public int state() {
       return state;
     }
+
+    /** Resets the state. */
+    public void reset() {
+      state = 0;
+    }
   }
 
   /**
@@ -222,7 +703,7 @@ public class GenerationLoopExperiment {
    * study the effects of optimizing the generation loop, so using a crossover that does nothing to
    * eliminate the time effects of crossover.
    */
-  private static final class NoOpCrossover implements CrossoverOperator<BitVector> {
+  static final class NoOpCrossover implements CrossoverOperator<BitVector> {
 
     private int count;
 
@@ -257,7 +738,7 @@ public class GenerationLoopExperiment {
    * associated with selection to enable studying strictly the time of the two versions of the
    * generation loop.
    */
-  private static final class NoOpSelection implements SelectionOperator {
+  static final class NoOpSelection implements SelectionOperator {
 
     @Override
     public void select(PopulationFitnessVector.Integer fitnesses, int[] selected) {
@@ -307,4 +788,50 @@ public class GenerationLoopExperiment {
       return this;
     }
   }
+
+  /**
+   * The TunableCostFitness is not a real fitness function. It hashes the number of ones in the
+   * BitVector with a configurable number of rounds of a multiplicative hash, which simulates a
+   * fitness function of a specified cost. It has no state, so it may be used by multiple threads
+   * concurrently.
+   */
+  static final class TunableCostFitness
+      implements FitnessFunction.Integer<BitVector>, IntegerCostOptimizationProblem<BitVector> {
+
+    private final int rounds;
+
+    /**
+     * Constructs the fitness function.
+     *
+     * @param rounds the number of rounds of hashing per fitness evaluation, which controls its cost
+     */
+    TunableCostFitness(int rounds) {
+      this.rounds = rounds;
+    }
+
+    @Override
+    public int fitness(BitVector b) {
+      return value(b) + 1;
+    }
+
+    @Override
+    public int cost(BitVector b) {
+      return value(b);
+    }
+
+    @Override
+    public int value(BitVector b) {
+      int h = b.countOnes();
+      for (int i = 0; i < rounds; i++) {
+        h = (h ^ (h >>> 16)) * 0x45d9f3b + i;
+      }
+      // keeps fitness positive
+      return h >>> 2;
+    }
+
+    @Override
+    public TunableCostFitness getProblem() {
+      return this;
+    }
+  }
 }
@@ -0,0 +1,196 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.PopulationFitnessVector;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm for BitVectors, with the generation logic of Chips-n-Salsa's
+ * GenerationalEvolutionaryAlgorithm: the number of pairs of parents to cross is drawn from the
+ * binomial distribution, and every member of the population is then passed to the mutation
+ * operator. Unlike the library's implementation, each stage of a generation is an overridable
+ * method, which enables experiments to replace individual stages with alternative implementations
+ * while keeping the rest of the generation logic identical.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class GenerationalBitVectorGA {
+
+  /** The current population. */
+  protected BitVector[] population;
+
+  /** The fitness of each member of the current population. */
+  protected final int[] fitness;
+
+  /** The mutation operator. */
+  protected final MutationOperator<BitVector> mutation;
+
+  /** The crossover operator. */
+  protected final CrossoverOperator<BitVector> crossover;
+
+  /** The fitness function. */
+  protected final FitnessFunction.Integer<BitVector> f;
+
+  /** The indexes of the members of the previous population chosen by the most recent selection. */
+  protected final int[] selected;
+
+  private final double crossoverRate;
+  private final Initializer<BitVector> initializer;
+  private final SelectionOperator selection;
+  private final PopulationFitnessVector.Integer fitnessVector;
+  private BitVector[] nextPopulation;
+  private BitVector best;
+  private int bestFitness;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param initializer initializes the population
+   * @param f the fitness function
+   * @param selection the selection operator
+   */
+  public GenerationalBitVectorGA(
+      int populationSize,
+      MutationOperator<BitVector> mutation,
+      CrossoverOperator<BitVector> crossover,
+      double crossoverRate,
+      Initializer<BitVector> initializer,
+      FitnessFunction.Integer<BitVector> f,
+      SelectionOperator selection) {
+    population = new BitVector[populationSize];
+    nextPopulation = new BitVector[populationSize];
+    fitness = new int[populationSize];
+    selected = new int[populationSize];
+    this.mutation = mutation;
+    this.crossover = crossover;
+    this.crossoverRate = crossoverRate;
+    this.initializer = initializer;
+    this.f = f;
+    this.selection = selection;
+    fitnessVector =
+        new PopulationFitnessVector.Integer() {
+          @Override
+          public int getFitness(int i) {
+            return fitness[i];
+          }
+
+          @Override
+          public int size() {
+            return fitness.length;
+          }
+        };
+  }
+
+  /**
+   * Runs the genetic algorithm from a new random initial population.
+   *
+   * @param generations the number of generations
+   * @return the best solution found
+   */
+  public BitVector optimize(int generations) {
+    best = null;
+    for (int i = 0; i < population.length; i++) {
+      population[i] = initializer.createCandidateSolution();
+    }
+    evaluate();
+    for (int g = 0; g < generations; g++) {
+      generation();
+    }
+    return best;
+  }
+
+  /**
+   * Gets the fitness of the best solution found by the most recent call to {@link #optimize}.
+   *
+   * @return the fitness of the best solution
+   */
+  public int getBestFitness() {
+    return bestFitness;
+  }
+
+  /** Executes one generation: selection, crossover, mutation, and fitness evaluation. */
+  protected void generation() {
+    select();
+    crossover(RandomVariates.nextBinomial(population.length >> 1, crossoverRate) << 1);
+    mutate();
+    evaluate();
+  }
+
+  /**
+   * Selects the members of the next population, and replaces the current population with copies
+   * of the selected members.
+   */
+  protected void select() {
+    selection.select(fitnessVector, selected);
+    for (int i = 0; i < selected.length; i++) {
+      nextPopulation[i] = population[selected[i]].copy();
+    }
+    BitVector[] temp = population;
+    population = nextPopulation;
+    nextPopulation = temp;
+  }
+
+  /**
+   * Crosses consecutive pairs of members of the population.
+   *
+   * @param count the number of members of the population to cross, which is even
+   */
+  protected void crossover(int count) {
+    for (int i = 1; i < count; i += 2) {
+      crossover.cross(population[i - 1], population[i]);
+    }
+  }
+
+  /** Mutates every member of the population. */
+  protected void mutate() {
+    for (BitVector b : population) {
+      mutation.mutate(b);
+    }
+  }
+
+  /** Computes the fitness of every member of the population. */
+  protected void evaluate() {
+    for (int i = 0; i < population.length; i++) {
+      fitness[i] = f.fitness(population[i]);
+    }
+    updateBest();
+  }
+
+  /** Updates the best solution found from the fitness values of the current population. */
+  protected final void updateBest() {
+    for (int i = 0; i < population.length; i++) {
+      if (best == null || fitness[i] > bestFitness) {
+        bestFitness = fitness[i];
+        best = population[i].copy();
+      }
+    }
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+import org.cicirello.search.representations.BitVector;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time of two alternative GAs for OneMax that differ only in how fitness
+ * is evaluated: full evaluation of every member of the population every generation, which counts
+ * all of the 1-bits of each BitVector; vs incremental evaluation, where mutation and crossover
+ * report the change in the number of 1-bits that they cause, and fitness is updated by that
+ * change. Both GAs use the same binomial-optimized bit-flip mutation and uniform crossover, so the
+ * comparison isolates the cost of evaluation once the cost of the operators has already been
+ * reduced. The GA otherwise follows the setup of {@link GAExperiment}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class IncrementalFitnessExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of generations for each trial. */
+  private static final int GENERATIONS_PER_TRIAL = 1000;
+
+  /** Size of the population. */
+  private static final int POPULATION_SIZE = 100;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    GAExperiment.OneMaxFitness fitness = new GAExperiment.OneMaxFitness();
+    final int BIT_LENGTH = 1024;
+    final double MUTATION_RATE = 1.0 / BIT_LENGTH;
+    double[] U_VALUES = {0.33, 0.49};
+
+    DoubleList valuesOfC = new DoubleList();
+    double[] rates = {0.05, 0.15, 0.25, 0.35, 0.45, 0.55, 0.65, 0.75, 0.85, 0.95};
+    for (double c : rates) {
+      valuesOfC.add(c);
+    }
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (double u : U_VALUES) {
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+        GenerationalBitVectorGA full =
+            new GenerationalBitVectorGA(
+                POPULATION_SIZE,
+                new DeltaBitFlipMutation(MUTATION_RATE),
+                new DeltaUniformCrossover(u),
+                c,
+                new BitVectorInitializer(BIT_LENGTH),
+                fitness,
+                new StochasticUniversalSampling());
+        IncrementalOneMaxGA incremental =
+            new IncrementalOneMaxGA(
+                POPULATION_SIZE,
+                new DeltaBitFlipMutation(MUTATION_RATE),
+                new DeltaUniformCrossover(u),
+                c,
+                new BitVectorInitializer(BIT_LENGTH),
+                fitness,
+                new StochasticUniversalSampling());
+        useToPreventOptimizingAway += full.optimize(GENERATIONS_PER_TRIAL).countOnes();
+        useToPreventOptimizingAway += incremental.optimize(GENERATIONS_PER_TRIAL).countOnes();
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (double u : U_VALUES) {
+      System.out.printf("Uniform Crossover Parameter U=%3.2f%n", u);
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
+          "c",
+          "full",
+          "incremental",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "full-ones",
+          "inc-ones",
+          "t-ones",
+          "dof-ones",
+          "p-ones",
+          "full-MB",
+          "incr-MB",
+          "full-gc",
+          "incr-gc",
+          "full-gcms",
+          "incr-gcms");
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own GAs, since operators are not thread-safe
+                  GenerationalBitVectorGA full =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          new DeltaBitFlipMutation(MUTATION_RATE),
+                          new DeltaUniformCrossover(u),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitness,
+                          new StochasticUniversalSampling());
+                  IncrementalOneMaxGA incremental =
+                      new IncrementalOneMaxGA(
+                          POPULATION_SIZE,
+                          new DeltaBitFlipMutation(MUTATION_RATE),
+                          new DeltaUniformCrossover(u),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitness,
+                          new StochasticUniversalSampling());
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> fitness.value(full.optimize(GENERATIONS_PER_TRIAL)),
+                    () -> fitness.value(incremental.optimize(GENERATIONS_PER_TRIAL))
+                  };
+                });
+        double[][] ms = results.times();
+        // the trials return the number of ones in the best solutions
+        int[][] onesCounts = results.values();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        Number[] tTestCounts = Statistics.tTestWelch(onesCounts[0], onesCounts[1]);
+        double tCounts = tTestCounts[0].doubleValue();
+        int dofCounts = tTestCounts[1].intValue();
+        double pCounts = Statistics.p(tCounts, dofCounts);
+
+        // times are converted to seconds during output
+        double timeFullSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeIncrementalSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeFullSeconds - timeIncrementalSeconds) / timeFullSeconds);
+
+        System.out.printf(
+            "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.2f\t%12.2f\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
+            c,
+            timeFullSeconds,
+            timeIncrementalSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            Statistics.mean(onesCounts[0]),
+            Statistics.mean(onesCounts[1]),
+            tCounts,
+            dofCounts,
+            pCounts,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]));
+      }
+      System.out.println();
+    }
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies full evaluation is faster.");
+    System.out.println("2) Positive t value implies incremental evaluation is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The ones columns compare solution quality, which should not differ.");
+    System.out.println("5) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /**
+   * A GA for OneMax that maintains the fitness of each member of the population incrementally. The
+   * fitness of a member is 1 plus its number of 1-bits, as in {@link GAExperiment.OneMaxFitness}.
+   * Only the initial population is fully evaluated. Afterwards, selection copies the fitness of
+   * each selected member along with the member itself, and crossover and mutation add the changes
+   * that they report.
+   */
+  private static final class IncrementalOneMaxGA extends GenerationalBitVectorGA {
+
+    private final DeltaBitFlipMutation deltaMutation;
+    private final DeltaUniformCrossover deltaCrossover;
+    private final int[] selectedFitness;
+    private boolean initialized;
+
+    /*
+     * Constructs the GA (see superclass for parameter descriptions).
+     */
+    private IncrementalOneMaxGA(
+        int populationSize,
+        DeltaBitFlipMutation mutation,
+        DeltaUniformCrossover crossover,
+        double crossoverRate,
+        Initializer<BitVector> initializer,
+        FitnessFunction.Integer<BitVector> f,
+        SelectionOperator selection) {
+      super(populationSize, mutation, crossover, crossoverRate, initializer, f, selection);
+      deltaMutation = mutation;
+      deltaCrossover = crossover;
+      selectedFitness = new int[populationSize];
+    }
+
+    @Override
+    public BitVector optimize(int generations) {
+      initialized = false;
+      return super.optimize(generations);
+    }
+
+    @Override
+    protected void select() {
+      super.select();
+      for (int i = 0; i < selected.length; i++) {
+        selectedFitness[i] = fitness[selected[i]];
+      }
+      System.arraycopy(selectedFitness, 0, fitness, 0, selectedFitness.length);
+    }
+
+    @Override
+    protected void crossover(int count) {
+      for (int i = 1; i < count; i += 2) {
+        int delta = deltaCrossover.crossDelta(population[i - 1], population[i]);
+        fitness[i - 1] += delta;
+        fitness[i] -= delta;
+      }
+    }
+
+    @Override
+    protected void mutate() {
+      for (int i = 0; i < population.length; i++) {
+        fitness[i] += deltaMutation.mutateDelta(population[i]);
+      }
+    }
+
+    @Override
+    protected void evaluate() {
+      if (initialized) {
+        updateBest();
+      } else {
+        // the initial population must be fully evaluated
+        super.evaluate();
+        initialized = true;
+      }
+    }
+  }
+}
@@ -18,17 +18,18 @@
 
 package org.cicirello.experiments.gaops;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.ThreadMXBean;
-import java.util.concurrent.ThreadLocalRandom;
-import org.cicirello.math.stats.Statistics;
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomSampler;
 import org.cicirello.search.operators.MutationOperator;
 import org.cicirello.search.operators.bits.BitFlipMutation;
 import org.cicirello.search.representations.BitVector;
 import org.cicirello.util.DoubleList;
 
 /**
- * Experiment comparing CPU time of two alternative bit-flip mutation implementations.
+ * Experiment comparing CPU time of alternative bit-flip mutation implementations: the simple
+ * per-bit approach, the optimized approach that uses the binomial distribution, an approach that
+ * jumps between the bits to flip with geometrically distributed gaps, and the simple approach with
+ * the bits to flip computed 32 at a time by comparing raw random integers against a threshold.
  *
  * <p>Vincent A. Cicirello. Optimizing Genetic Algorithms Using the Binomial Distribution.
  * <i>Proceedings of the 16th International Joint Conference on Computational Intelligence</i>,
@@ -54,9 +55,55 @@ public class MutationExperiment {
    *     JIT from optimizing away the computation
    */
   public static int mutationCodeToTime(MutationOperator<BitVector> mutation, BitVector mutateMe) {
+    return mutationCodeToTime(mutation, mutateMe, SAMPLES_PER_TRIAL);
+  }
+
+  /**
+   * Mutates a BitVector a specified number of times.
+   *
+   * @param mutation the mutation operator
+   * @param mutateMe the BitVector to mutate
+   * @param samples the number of times to mutate the BitVector
+   * @return a meaningless value dependent upon result of all mutations for purpose of preventing
+   *     JIT from optimizing away the computation
+   */
+  public static int mutationCodeToTime(
+      MutationOperator<BitVector> mutation, BitVector mutateMe, int samples) {
     int useToPreventOptimizingAway = 0;
     int length32 = (mutateMe.length() + 31) >> 5;
-    for (int i = 0; i < SAMPLES_PER_TRIAL; i++) {
+    for (int i = 0; i < samples; i++) {
+      mutation.mutate(mutateMe);
+      useToPreventOptimizingAway += mutateMe.get32(i % length32);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Mutates a BitVector a specified number of times with the geometric version. The versions other
+   * than the simple and optimized versions are each timed by a method of their own, so that the
+   * call of mutate in mutationCodeToTime sees only the simple and optimized versions, as in the
+   * original experiment, rather than becoming megamorphic.
+   */
+  private static int geometricCodeToTime(
+      GeometricBitFlipMutation mutation, BitVector mutateMe, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (mutateMe.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
+      mutation.mutate(mutateMe);
+      useToPreventOptimizingAway += mutateMe.get32(i % length32);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Mutates a BitVector a specified number of times with the threshold version, from a call site of
+   * its own, like geometricCodeToTime.
+   */
+  private static int thresholdCodeToTime(
+      ThresholdBitFlipMutation mutation, BitVector mutateMe, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (mutateMe.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
       mutation.mutate(mutateMe);
       useToPreventOptimizingAway += mutateMe.get32(i % length32);
     }
@@ -70,7 +117,7 @@ public class MutationExperiment {
    */
   public static void main(String[] args) {
 
-    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    ParallelTrialRunner runner = new ParallelTrialRunner();
     int useToPreventOptimizingAway = 0;
 
     // Attempt to "warm-up" Java's JIT compiler.
@@ -78,17 +125,59 @@ public class MutationExperiment {
     for (double m = 1.0 / 1024; m - 0.25 <= 1E-10; m *= 2) {
       SimpleBitFlipMutation simple = new SimpleBitFlipMutation(m);
       BitFlipMutation optimized = new BitFlipMutation(m);
+      GeometricBitFlipMutation geometric = new GeometricBitFlipMutation(m);
+      ThresholdBitFlipMutation threshold = new ThresholdBitFlipMutation(m);
       BitVector v = new BitVector(1024);
       useToPreventOptimizingAway += mutationCodeToTime(simple, v);
       useToPreventOptimizingAway += mutationCodeToTime(optimized, v);
+      useToPreventOptimizingAway += geometricCodeToTime(geometric, v, SAMPLES_PER_TRIAL);
+      useToPreventOptimizingAway += thresholdCodeToTime(threshold, v, SAMPLES_PER_TRIAL);
     }
     System.out.println("End Warmup Phase");
     System.out.println();
 
-    for (int bitLength = 16; bitLength <= 1024; bitLength *= 2) {
+    for (int bitLength = BitLengthSweep.first();
+        bitLength <= BitLengthSweep.last();
+        bitLength *= 2) {
       System.out.printf(
-          "%4s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s%n",
-          "n", "u", "simple", "optimized", "%less-time", "t", "dof", "p");
+          "%4s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "simple",
+          "optimized",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "geometric",
+          "t-simple",
+          "dof-simple",
+          "p-simple",
+          "t-opt",
+          "dof-opt",
+          "p-opt",
+          "threshold",
+          "t-thr",
+          "dof-thr",
+          "p-thr",
+          "samples",
+          "touched-B",
+          "simple-ns",
+          "opt-ns",
+          "geo-ns",
+          "thr-ns",
+          "simple-B",
+          "opt-B",
+          "geo-B",
+          "thr-B",
+          "simple-gc",
+          "opt-gc",
+          "geo-gc",
+          "thr-gc",
+          "simple-gcms",
+          "opt-gcms",
+          "geo-gcms",
+          "thr-gcms");
       DoubleList valuesOfM = new DoubleList();
       for (double m = 1.0 / bitLength; m - 0.25 <= 1E-10; m *= 2) {
         valuesOfM.add(m);
@@ -97,30 +186,94 @@ public class MutationExperiment {
         double m = valuesOfM.get(i);
         SimpleBitFlipMutation simple = new SimpleBitFlipMutation(m);
         BitFlipMutation optimized = new BitFlipMutation(m);
-        BitVector bits = new BitVector(bitLength);
-        double[][] ms = new double[2][TRIALS];
-        for (int j = 0; j < TRIALS; j++) {
-          long start = bean.getCurrentThreadCpuTime();
-          useToPreventOptimizingAway += mutationCodeToTime(simple, bits);
-          long middle = bean.getCurrentThreadCpuTime();
-          useToPreventOptimizingAway += mutationCodeToTime(optimized, bits);
-          long end = bean.getCurrentThreadCpuTime();
-          // compute elapsed times in nanoseconds
-          ms[0][j] = (middle - start);
-          ms[1][j] = (end - middle);
-        }
-        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        GeometricBitFlipMutation geometric = new GeometricBitFlipMutation(m);
+        ThresholdBitFlipMutation threshold = new ThresholdBitFlipMutation(m);
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(
+                SAMPLES_PER_TRIAL,
+                n,
+                samples ->
+                    () -> {
+                      // each thread mutates its own BitVector with its own operators
+                      BitVector bits = new BitVector(n);
+                      MutationOperator<BitVector> simpleCopy = simple.split();
+                      MutationOperator<BitVector> optimizedCopy = optimized.split();
+                      GeometricBitFlipMutation geometricCopy = geometric.split();
+                      ThresholdBitFlipMutation thresholdCopy = threshold.split();
+                      return new ParallelTrialRunner.Trial[] {
+                        () -> mutationCodeToTime(simpleCopy, bits, samples),
+                        () -> mutationCodeToTime(optimizedCopy, bits, samples),
+                        () -> geometricCodeToTime(geometricCopy, bits, samples),
+                        () -> thresholdCodeToTime(thresholdCopy, bits, samples)
+                      };
+                    });
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest = sweep.tTest(ms, 0, 1);
         double t = tTest[0].doubleValue();
         int dof = tTest[1].intValue();
-        double p = Statistics.p(t, dof);
+        double p = tTest[2].doubleValue();
+        Number[] tTestSimple = sweep.tTest(ms, 0, 2);
+        double tSimple = tTestSimple[0].doubleValue();
+        int dofSimple = tTestSimple[1].intValue();
+        double pSimple = tTestSimple[2].doubleValue();
+        Number[] tTestOptimized = sweep.tTest(ms, 1, 2);
+        double tOptimized = tTestOptimized[0].doubleValue();
+        int dofOptimized = tTestOptimized[1].intValue();
+        double pOptimized = tTestOptimized[2].doubleValue();
+        Number[] tTestThreshold = sweep.tTest(ms, 3, 1);
+        double tThreshold = tTestThreshold[0].doubleValue();
+        int dofThreshold = tTestThreshold[1].intValue();
+        double pThreshold = tTestThreshold[2].doubleValue();
         // times are converted to seconds during output
-        double timeSimpleSeconds = Statistics.mean(ms[0]) / 1000000000.0;
-        double timeOptimizedSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double timeSimpleSeconds = sweep.seconds(ms, 0);
+        double timeOptimizedSeconds = sweep.seconds(ms, 1);
+        double timeGeometricSeconds = sweep.seconds(ms, 2);
+        double timeThresholdSeconds = sweep.seconds(ms, 3);
         double percentLessTime =
             100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
         System.out.printf(
-            "%4d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g%n",
-            bitLength, m, timeSimpleSeconds, timeOptimizedSeconds, percentLessTime, t, dof, p);
+            "%4d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10d\t%10d\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            bitLength,
+            m,
+            timeSimpleSeconds,
+            timeOptimizedSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            timeGeometricSeconds,
+            tSimple,
+            dofSimple,
+            pSimple,
+            tOptimized,
+            dofOptimized,
+            pOptimized,
+            timeThresholdSeconds,
+            tThreshold,
+            dofThreshold,
+            pThreshold,
+            sweep.samples(),
+            // bytes of the BitVector's bits, all of which the simple version reads and writes
+            (n + 7) / 8,
+            sweep.perSample(ms, 0),
+            sweep.perSample(ms, 1),
+            sweep.perSample(ms, 2),
+            sweep.perSample(ms, 3),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perSample(results.bytes(), 3),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcCounts(), 3),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2),
+            sweep.perTrial(results.gcTimes(), 3));
       }
       System.out.println();
     }
@@ -128,9 +281,23 @@ public class MutationExperiment {
     System.out.println("1) Negative t value implies simple version is faster.");
     System.out.println("2) Positive t value implies optimized version is faster.");
     System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The t-simple and t-opt columns compare the geometric version to the");
+    System.out.println("   simple and optimized versions: positive t implies geometric is faster.");
+    System.out.println("5) The threshold version is the simple version with the bits to flip");
+    System.out.println("   computed 32 at a time from raw random integers. The t-thr column");
+    System.out.println("   compares it to the optimized version: positive t implies optimized");
+    System.out.println("   is faster.");
+    System.out.println("6) Each trial performs samples mutations, which is calibrated to the CPU");
+    System.out.println("   time of the slowest version for n > 1024 (run with -DlargeN=true for");
+    System.out.println("   n from 2^14 to 2^22). The touched-B column is the size in bytes of the");
+    System.out.println("   mutated bits, the -ns columns are the CPU time per mutation, and the");
+    System.out.println("   -B columns are the bytes allocated per mutation. NaN marks a version");
+    System.out.println("   that was skipped because a single mutation took longer than a second.");
+    ParallelTrialRunner.printGcLegend(7);
 
     System.out.println(
         "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
   }
 
   /** The commonly found implementation of bit-flip mutation. */
@@ -164,7 +331,7 @@ public class MutationExperiment {
     public void mutate(BitVector c) {
       int numBits = c.length();
       for (int index = 0; index < numBits; index++) {
-        if (ThreadLocalRandom.current().nextDouble() < m) {
+        if (RandomSource.current().nextDouble() < m) {
           c.flip(index);
         }
       }
@@ -175,4 +342,182 @@ public class MutationExperiment {
       return new SimpleBitFlipMutation(this);
     }
   }
+
+  /**
+   * Bit-flip mutation with the simple per-bit approach, except that it gets the random number
+   * generator of the thread once per call rather than once per bit.
+   */
+  public static final class HoistedBitFlipMutation implements MutationOperator<BitVector> {
+
+    private final double m;
+
+    /**
+     * Constructs a HoistedBitFlipMutation operator with a specified mutation rate.
+     *
+     * @param m The mutation rate, which is the probability of flipping any individual bit.
+     * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+     */
+    public HoistedBitFlipMutation(double m) {
+      if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+      this.m = m;
+    }
+
+    @Override
+    public void mutate(BitVector c) {
+      int numBits = c.length();
+      RandomGenerator r = RandomSource.current();
+      for (int index = 0; index < numBits; index++) {
+        if (r.nextDouble() < m) {
+          c.flip(index);
+        }
+      }
+    }
+
+    @Override
+    public HoistedBitFlipMutation split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Bit-flip mutation with the simple per-bit approach, but without its per-bit overhead: it
+   * generates the bits to flip 32 at a time with {@link BitmaskGenerationExperiment#thresholdWord},
+   * comparing 32-bit random integers against a precomputed threshold rather than calling
+   * nextDouble() for each bit, and flips them with one exclusive-or per 32 bits. This is the best
+   * simple implementation to compare the optimized approach against.
+   */
+  public static final class ThresholdBitFlipMutation implements MutationOperator<BitVector> {
+
+    private final long threshold;
+
+    /**
+     * Constructs a ThresholdBitFlipMutation operator with a specified mutation rate.
+     *
+     * @param m The mutation rate, which is the probability of flipping any individual bit, which
+     *     is rounded down to a multiple of 2<sup>-32</sup>.
+     * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+     */
+    public ThresholdBitFlipMutation(double m) {
+      if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+      threshold = BitmaskGenerationExperiment.threshold(m);
+    }
+
+    @Override
+    public void mutate(BitVector c) {
+      int n = c.length();
+      int length32 = (n + 31) >> 5;
+      RandomGenerator r = RandomSource.current();
+      for (int i = 0; i < length32; i++) {
+        int flips = BitmaskGenerationExperiment.thresholdWord(r, threshold);
+        if (i == length32 - 1 && (n & 31) != 0) {
+          flips &= 0xffffffff >>> (32 - (n & 31));
+        }
+        c.set32(i, c.get32(i) ^ flips);
+      }
+    }
+
+    @Override
+    public ThresholdBitFlipMutation split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Bit-flip mutation that works like the optimized bit-flip mutation, but draws the number of bits
+   * to flip from a binomial distribution that is precomputed for the length of the BitVectors and
+   * the mutation rate, rather than set up anew by each mutation. The distribution is computed when
+   * first mutating a BitVector, and again only if the length of the BitVectors changes.
+   */
+  public static final class CachedBinomialBitFlipMutation implements MutationOperator<BitVector> {
+
+    private final double m;
+    private BinomialSampler binomial;
+
+    /**
+     * Constructs a CachedBinomialBitFlipMutation operator with a specified mutation rate.
+     *
+     * @param m The mutation rate, which is the probability of flipping any individual bit.
+     * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+     */
+    public CachedBinomialBitFlipMutation(double m) {
+      if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+      this.m = m;
+    }
+
+    /*
+     * internal copy constructor
+     */
+    private CachedBinomialBitFlipMutation(CachedBinomialBitFlipMutation other) {
+      m = other.m;
+      // the sampler is immutable, so the copies can share it
+      binomial = other.binomial;
+    }
+
+    @Override
+    public void mutate(BitVector c) {
+      int n = c.length();
+      if (binomial == null || binomial.n() != n) {
+        binomial = new BinomialSampler(n, m);
+      }
+      RandomGenerator r = RandomSource.current();
+      int[] indexes = RandomSampler.sample(n, binomial.next(r), null, r);
+      for (int index : indexes) {
+        c.flip(index);
+      }
+    }
+
+    @Override
+    public CachedBinomialBitFlipMutation split() {
+      return new CachedBinomialBitFlipMutation(this);
+    }
+  }
+
+  /**
+   * Bit-flip mutation that jumps directly from one flipped bit to the next, where the gaps between
+   * consecutive flipped bits are geometrically distributed. Unlike the optimized bit-flip mutation,
+   * it needs neither the binomial distribution nor sampling without replacement, and it visits the
+   * bits in increasing order.
+   */
+  public static final class GeometricBitFlipMutation implements MutationOperator<BitVector> {
+
+    private final double lnOneMinusM;
+
+    /**
+     * Constructs a GeometricBitFlipMutation operator with a specified mutation rate.
+     *
+     * @param m The mutation rate, which is the probability of flipping any individual bit. The
+     *     expected number of bits flipped during a call to the {@link #mutate} method is m*N where
+     *     N is the length of the mutated BitVector. There is no guarantee that any bits will be
+     *     flipped during a mutation (e.g., if m is close to 0).
+     * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+     */
+    public GeometricBitFlipMutation(double m) {
+      if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+      lnOneMinusM = Math.log1p(-m);
+    }
+
+    @Override
+    public void mutate(BitVector c) {
+      int numBits = c.length();
+      RandomGenerator r = RandomSource.current();
+      int index = -1;
+      while (true) {
+        // number of bits skipped before the next bit to flip
+        double gap = Math.log(1.0 - r.nextDouble()) / lnOneMinusM;
+        if (gap >= numBits - 1 - index) {
+          return;
+        }
+        index += 1 + (int) gap;
+        c.flip(index);
+      }
+    }
+
+    @Override
+    public GeometricBitFlipMutation split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
 }
@@ -0,0 +1,94 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomSampler;
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm for BitVectors that applies the binomial optimization of the
+ * crossover stage to the mutation stage as well. Rather than passing every member of the
+ * population to a bit-flip mutation that flips no bits of many of them, it draws the number of
+ * members that have at least one bit flipped from the binomial distribution with probability 1 -
+ * (1-m)<sup>n</sup>, chooses that many members at random, and passes only those to a mutation
+ * operator that flips at least one bit, such as {@link AtLeastOneBitFlipMutation}. Every other
+ * stage of a generation is identical to that of {@link GenerationalBitVectorGA}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class MutationSkippingGA extends GenerationalBitVectorGA {
+
+  private final double mutationRate;
+  private int bitLength;
+  private double anyFlip;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param mutation the mutation operator, which must flip at least one bit with the distribution
+   *     of bit-flip mutation with rate mutationRate conditioned on flipping at least one bit, and
+   *     which is applied only to the members of the population chosen for mutation
+   * @param mutationRate the probability of flipping any individual bit
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param initializer initializes the population
+   * @param f the fitness function
+   * @param selection the selection operator
+   * @throws IllegalArgumentException if mutationRate &le; 0 or if mutationRate &ge; 1.
+   */
+  public MutationSkippingGA(
+      int populationSize,
+      MutationOperator<BitVector> mutation,
+      double mutationRate,
+      CrossoverOperator<BitVector> crossover,
+      double crossoverRate,
+      Initializer<BitVector> initializer,
+      FitnessFunction.Integer<BitVector> f,
+      SelectionOperator selection) {
+    super(populationSize, mutation, crossover, crossoverRate, initializer, f, selection);
+    if (mutationRate <= 0 || mutationRate >= 1) {
+      throw new IllegalArgumentException("mutationRate constrained by: 0.0 < m < 1.0");
+    }
+    this.mutationRate = mutationRate;
+  }
+
+  /** Mutates the members of the population that have at least one bit flipped. */
+  @Override
+  protected void mutate() {
+    int n = population[0].length();
+    if (n != bitLength) {
+      bitLength = n;
+      anyFlip = AtLeastOneBitFlipMutation.probabilityOfAnyFlip(n, mutationRate);
+    }
+    RandomGenerator r = RandomSource.current();
+    int count = RandomVariates.nextBinomial(population.length, anyFlip, r);
+    for (int i : RandomSampler.sample(population.length, count, null, r)) {
+      mutation.mutate(population[i]);
+    }
+  }
+}
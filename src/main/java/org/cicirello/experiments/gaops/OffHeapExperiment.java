@@ -0,0 +1,299 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+
+/**
+ * Experiment comparing CPU time, heap usage, and garbage collection time of three alternative GAs
+ * for OneMax that differ in where the population is stored: on the Java heap as BitVector objects
+ * (see {@link GenerationalBitVectorGA}); off the heap in direct buffers (see {@link OffHeapGA});
+ * and off the heap in memory-mapped files. All three use binomial-optimized bit-flip mutation and
+ * uniform crossover with reusable buffers, and the same generation logic. The length of the bit
+ * strings grows to 2<sup>20</sup>, beyond what fits comfortably in the young generation, and the
+ * number of generations is scaled inversely with length so that each trial processes the same
+ * number of bits. A low uniform crossover rate keeps the generation of the crossover masks, which
+ * is identical in all three, from dominating the time.
+ *
+ * <p>Garbage collection times are for the whole JVM, so they are only attributable to individual
+ * trials if the trials run on a single thread, which is the default (see {@link
+ * ParallelTrialRunner}). The on-heap populations of the longest bit strings need a heap of about 1
+ * GB, such as with <code>java -Xmx2g ...</code>.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class OffHeapExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Size of the population. */
+  private static final int POPULATION_SIZE = 1000;
+
+  /** Number of bits processed (population size times length times generations) per trial. */
+  private static final long BITS_PER_TRIAL = 1L << 30;
+
+  /** Probability of exchanging each bit during uniform crossover. */
+  private static final double U = 0.05;
+
+  /** Crossover rate. */
+  private static final double C = 0.85;
+
+  /** Temporary files of the memory-mapped populations that have not yet been deleted. */
+  private static final List<Path> TEMP_FILES = new ArrayList<Path>();
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    GAExperiment.OneMaxFitness fitness = new GAExperiment.OneMaxFitness();
+    OffHeapGA.Fitness offHeapFitness = (population, member) -> population.countOnes(member) + 1;
+    int[] bitLengths = {1024, 16384, 131072, 1048576};
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (int bitLength : bitLengths) {
+      GenerationalBitVectorGA heap = heapGA(bitLength, fitness);
+      OffHeapGA direct = directGA(bitLength, offHeapFitness);
+      OffHeapGA mapped = mappedGA(bitLength, offHeapFitness);
+      int generations = generations(bitLength);
+      useToPreventOptimizingAway += heap.optimize(generations).countOnes();
+      useToPreventOptimizingAway += direct.optimize(generations).countOnes();
+      useToPreventOptimizingAway += mapped.optimize(generations).countOnes();
+      deleteTempFiles();
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.println("Heap Footprint (KB) of the GA After its First Generation");
+    System.out.printf("%8s\t%12s\t%12s\t%12s%n", "n", "heap", "direct", "mapped");
+    for (int bitLength : bitLengths) {
+      final int n = bitLength;
+      System.out.printf(
+          "%8d\t%12.1f\t%12.1f\t%12.1f%n",
+          n,
+          ArenaExperiment.footprint(() -> run(heapGA(n, fitness))) / 1024.0,
+          ArenaExperiment.footprint(() -> run(directGA(n, offHeapFitness))) / 1024.0,
+          ArenaExperiment.footprint(() -> run(mappedGA(n, offHeapFitness))) / 1024.0);
+      deleteTempFiles();
+    }
+    System.out.println();
+
+    System.out.printf(
+        "%8s\t%5s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+        "n",
+        "gens",
+        "heap",
+        "direct",
+        "mapped",
+        "t-direct",
+        "p-direct",
+        "t-mapped",
+        "p-mapped",
+        "heap-MB",
+        "direct-MB",
+        "mapped-MB",
+        "heap-gc",
+        "direct-gc",
+        "mapped-gc",
+        "heap-gcms",
+        "direct-gcms",
+        "mapped-gcms");
+    for (int bitLength : bitLengths) {
+      final int n = bitLength;
+      int generations = generations(bitLength);
+      ParallelTrialRunner.Results results =
+          runner.run(
+              TRIALS,
+              () -> {
+                // each thread needs its own GAs, since operators are not thread-safe
+                GenerationalBitVectorGA heap = heapGA(n, fitness);
+                OffHeapGA direct = directGA(n, offHeapFitness);
+                OffHeapGA mapped = mappedGA(n, offHeapFitness);
+                return new ParallelTrialRunner.Trial[] {
+                  () -> heap.optimize(generations).countOnes(),
+                  () -> direct.optimize(generations).countOnes(),
+                  () -> mapped.optimize(generations).countOnes()
+                };
+              });
+      // the GAs of the trials are no longer used
+      deleteTempFiles();
+      double[][] ms = results.times();
+      double[][] bytes = results.bytes();
+      double[][] gcCounts = results.gcCounts();
+      double[][] gcMs = results.gcTimes();
+      useToPreventOptimizingAway += results.sum();
+
+      Number[] tTestDirect = Statistics.tTestWelch(ms[0], ms[1]);
+      double tDirect = tTestDirect[0].doubleValue();
+      double pDirect = Statistics.p(tDirect, tTestDirect[1].intValue());
+      Number[] tTestMapped = Statistics.tTestWelch(ms[0], ms[2]);
+      double tMapped = tTestMapped[0].doubleValue();
+      double pMapped = Statistics.p(tMapped, tTestMapped[1].intValue());
+
+      // times are converted to seconds during output
+      System.out.printf(
+          "%8d\t%5d\t%12.3g\t%12.3g\t%12.3g\t%10.4f\t%10.3g\t%10.4f\t%10.3g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+          n,
+          generations,
+          Statistics.mean(ms[0]) / 1000000000.0,
+          Statistics.mean(ms[1]) / 1000000000.0,
+          Statistics.mean(ms[2]) / 1000000000.0,
+          tDirect,
+          pDirect,
+          tMapped,
+          pMapped,
+          Statistics.mean(bytes[0]) / 1000000.0,
+          Statistics.mean(bytes[1]) / 1000000.0,
+          Statistics.mean(bytes[2]) / 1000000.0,
+          Statistics.mean(gcCounts[0]),
+          Statistics.mean(gcCounts[1]),
+          Statistics.mean(gcCounts[2]),
+          Statistics.mean(gcMs[0]),
+          Statistics.mean(gcMs[1]),
+          Statistics.mean(gcMs[2]));
+    }
+    System.out.println();
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies on-heap version is faster.");
+    System.out.println("2) Positive t value implies off-heap version is faster.");
+    System.out.println("3) The p columns are, well, the p values.");
+    System.out.println("4) The -MB columns are the heap memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(5);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /*
+   * Number of generations per trial for a bit length.
+   */
+  private static int generations(int bitLength) {
+    return (int) Math.max(1, BITS_PER_TRIAL / ((long) POPULATION_SIZE * bitLength));
+  }
+
+  /*
+   * Creates the GA with a population of BitVectors on the heap.
+   */
+  private static GenerationalBitVectorGA heapGA(int bitLength, GAExperiment.OneMaxFitness fitness) {
+    return new GenerationalBitVectorGA(
+        POPULATION_SIZE,
+        new DeltaBitFlipMutation(1.0 / bitLength),
+        new DeltaUniformCrossover(U),
+        C,
+        new BitVectorInitializer(bitLength),
+        fitness,
+        new StochasticUniversalSampling());
+  }
+
+  /*
+   * Creates the GA with a population in direct buffers.
+   */
+  private static OffHeapGA directGA(int bitLength, OffHeapGA.Fitness fitness) {
+    return new OffHeapGA(
+        OffHeapPopulation.allocateDirect(POPULATION_SIZE, bitLength),
+        OffHeapPopulation.allocateDirect(POPULATION_SIZE, bitLength),
+        new ArenaBitFlipMutation(1.0 / bitLength),
+        new ArenaCrossover.Uniform(U),
+        C,
+        fitness,
+        new StochasticUniversalSampling());
+  }
+
+  /*
+   * Creates the GA with a population in memory-mapped temporary files.
+   */
+  private static OffHeapGA mappedGA(int bitLength, OffHeapGA.Fitness fitness) {
+    try {
+      return new OffHeapGA(
+          OffHeapPopulation.map(tempFile(), POPULATION_SIZE, bitLength),
+          OffHeapPopulation.map(tempFile(), POPULATION_SIZE, bitLength),
+          new ArenaBitFlipMutation(1.0 / bitLength),
+          new ArenaCrossover.Uniform(U),
+          C,
+          fitness,
+          new StochasticUniversalSampling());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /*
+   * Creates a temporary file, which is deleted by deleteTempFiles, or else when the JVM exits.
+   */
+  private static Path tempFile() throws IOException {
+    Path file = Files.createTempFile("population", ".bin");
+    file.toFile().deleteOnExit();
+    synchronized (TEMP_FILES) {
+      TEMP_FILES.add(file);
+    }
+    return file;
+  }
+
+  /*
+   * Deletes the temporary files of all GAs created so far, which must no longer be in use. The
+   * space of a deleted file is reclaimed once its mapping is garbage collected. A file that the
+   * system refuses to delete while it is mapped is left to be deleted when the JVM exits.
+   */
+  private static void deleteTempFiles() {
+    synchronized (TEMP_FILES) {
+      for (Path file : TEMP_FILES) {
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException e) {
+          // still deleted on exit
+        }
+      }
+      TEMP_FILES.clear();
+    }
+  }
+
+  /*
+   * Runs a GA for one generation, for measuring its footprint.
+   */
+  private static Object run(GenerationalBitVectorGA ga) {
+    ga.optimize(1);
+    return ga;
+  }
+
+  /*
+   * Runs a GA for one generation, for measuring its footprint.
+   */
+  private static Object run(OffHeapGA ga) {
+    ga.optimize(1);
+    return ga;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.search.evo.SelectionOperator;
+
+/**
+ * A generational genetic algorithm whose populations are stored outside of the Java heap, in a
+ * pair of {@link OffHeapPopulation} objects, one for the current population and one for the next.
+ * Selection copies the selected members of the current population into the next, after which the
+ * two swap roles. The generation logic is that of {@link BitPopulationGA}, the same as that of
+ * {@link ArenaGA} and {@link GenerationalBitVectorGA}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class OffHeapGA extends BitPopulationGA<OffHeapPopulation> {
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param population the storage for the population, whose size is the population size and whose
+   *     contents are overwritten by each run
+   * @param nextPopulation the storage for the next population, which must be of the same size and
+   *     length as population
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param f the fitness function
+   * @param selection the selection operator
+   */
+  public OffHeapGA(
+      OffHeapPopulation population,
+      OffHeapPopulation nextPopulation,
+      ArenaBitFlipMutation mutation,
+      ArenaCrossover crossover,
+      double crossoverRate,
+      Fitness f,
+      SelectionOperator selection) {
+    super(
+        population,
+        nextPopulation,
+        OffHeapPopulation.allocateDirect(1, population.length()),
+        mutation,
+        crossover,
+        crossoverRate,
+        f,
+        selection);
+  }
+
+  /** A fitness function for members of an {@link OffHeapPopulation}. */
+  @FunctionalInterface
+  public interface Fitness extends BitPopulationGA.Fitness<OffHeapPopulation> {}
+}
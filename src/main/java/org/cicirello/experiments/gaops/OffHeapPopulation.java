@@ -0,0 +1,276 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A population of bit strings stored outside of the Java heap, in a direct or memory-mapped buffer
+ * of longs. Member i occupies the longs beginning at index i * {@link #wordsPerMember}, with bit j
+ * of a member in bit j % 64 of that member's long j / 64. The garbage collector neither copies nor
+ * scans the contents of the buffer, so very long bit strings and large populations add almost
+ * nothing to the heap. The {@link ArenaBitFlipMutation} and {@link ArenaCrossover} operators work
+ * on this population through the {@link BitPopulation} interface.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class OffHeapPopulation implements BitPopulation<OffHeapPopulation> {
+
+  private final LongBuffer words;
+  private final int size;
+  private final int length;
+  private final int wordsPerMember;
+  private final long lastWordMask;
+
+  /*
+   * Constructs a population backed by a buffer of the appropriate size.
+   */
+  private OffHeapPopulation(ByteBuffer bytes, int size, int length) {
+    this.size = size;
+    this.length = length;
+    wordsPerMember = (length + 63) >> 6;
+    lastWordMask = (length & 63) == 0 ? -1L : -1L >>> (64 - (length & 63));
+    words = bytes.order(ByteOrder.nativeOrder()).asLongBuffer();
+  }
+
+  /**
+   * Constructs a population in a direct buffer, initially all zeros.
+   *
+   * @param size the number of members of the population
+   * @param length the length of each bit string
+   * @return the population
+   * @throws IllegalArgumentException if size or length is less than 1, or if the population
+   *     requires 2<sup>31</sup> or more bytes
+   */
+  public static OffHeapPopulation allocateDirect(int size, int length) {
+    return new OffHeapPopulation(
+        ByteBuffer.allocateDirect(bytesRequired(size, length)), size, length);
+  }
+
+  /**
+   * Constructs a population in a memory-mapped file. If the file already exists, its contents
+   * become the initial contents of the population.
+   *
+   * @param file the file, which is created if it does not exist
+   * @param size the number of members of the population
+   * @param length the length of each bit string
+   * @return the population
+   * @throws IllegalArgumentException if size or length is less than 1, or if the population
+   *     requires 2<sup>31</sup> or more bytes
+   * @throws IOException if the file cannot be created or mapped
+   */
+  public static OffHeapPopulation map(Path file, int size, int length) throws IOException {
+    int bytes = bytesRequired(size, length);
+    try (FileChannel channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      // the mapping remains valid after the channel is closed
+      return new OffHeapPopulation(
+          channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes), size, length);
+    }
+  }
+
+  /**
+   * Gets the number of members of the population.
+   *
+   * @return the number of members
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the length of each bit string.
+   *
+   * @return the length in bits
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Gets the number of longs occupied by each member.
+   *
+   * @return the number of longs per member
+   */
+  public int wordsPerMember() {
+    return wordsPerMember;
+  }
+
+  /** Sets every bit of every member uniformly at random. */
+  @Override
+  public void randomize() {
+    RandomGenerator r = RandomSource.current();
+    int end = size * wordsPerMember;
+    for (int i = 0; i < end; i++) {
+      words.put(i, r.nextLong());
+    }
+    for (int i = wordsPerMember - 1; i < end; i += wordsPerMember) {
+      words.put(i, words.get(i) & lastWordMask);
+    }
+  }
+
+  /**
+   * Gets a bit of a member.
+   *
+   * @param member the index of the member
+   * @param index the index of the bit
+   * @return the bit, either 0 or 1
+   */
+  @Override
+  public int getBit(int member, int index) {
+    return (int) (words.get(member * wordsPerMember + (index >> 6)) >>> (index & 63)) & 1;
+  }
+
+  /**
+   * Flips a bit of a member.
+   *
+   * @param member the index of the member
+   * @param index the index of the bit
+   */
+  @Override
+  public void flip(int member, int index) {
+    int i = member * wordsPerMember + (index >> 6);
+    words.put(i, words.get(i) ^ (1L << (index & 63)));
+  }
+
+  /**
+   * Counts the 1-bits of a member.
+   *
+   * @param member the index of the member
+   * @return the number of 1-bits
+   */
+  @Override
+  public int countOnes(int member) {
+    int count = 0;
+    int end = (member + 1) * wordsPerMember;
+    for (int i = member * wordsPerMember; i < end; i++) {
+      count += Long.bitCount(words.get(i));
+    }
+    return count;
+  }
+
+  /**
+   * Copies a member of this population into another population with members of the same length.
+   *
+   * @param member the index of the member to copy
+   * @param dest the destination population, which may be this population
+   * @param destMember the index in dest of the member to overwrite
+   */
+  @Override
+  public void copy(int member, OffHeapPopulation dest, int destMember) {
+    dest.words.put(destMember * wordsPerMember, words, member * wordsPerMember, wordsPerMember);
+  }
+
+  /**
+   * Exchanges the bits of two members wherever a mask has 1-bits.
+   *
+   * @param member1 the index of the first member
+   * @param member2 the index of the second member
+   * @param mask the mask, as 32-bit blocks in the layout of a BitVector, such as one generated by
+   *     {@link BitmaskGenerationExperiment#bitMaskOptimized(int, double, int[], int[])}
+   */
+  @Override
+  public void exchangeBits(int member1, int member2, int[] mask) {
+    int offset1 = member1 * wordsPerMember;
+    int offset2 = member2 * wordsPerMember;
+    int length32 = (length + 31) >> 5;
+    for (int i = 0; i < wordsPerMember; i++) {
+      int j = i << 1;
+      long m = mask[j] & 0xffffffffL;
+      if (j + 1 < length32) {
+        m |= (long) mask[j + 1] << 32;
+      }
+      long w1 = words.get(offset1 + i);
+      long w2 = words.get(offset2 + i);
+      long exchange = (w1 ^ w2) & m;
+      words.put(offset1 + i, w1 ^ exchange);
+      words.put(offset2 + i, w2 ^ exchange);
+    }
+  }
+
+  /**
+   * Exchanges a range of bits of two members, 64 bits at a time.
+   *
+   * @param member1 the index of the first member
+   * @param member2 the index of the second member
+   * @param first the index of the first bit of the range
+   * @param last the index of the last bit of the range, inclusive
+   */
+  @Override
+  public void exchangeBits(int member1, int member2, int first, int last) {
+    int firstWord = first >> 6;
+    int lastWord = last >> 6;
+    int offset1 = member1 * wordsPerMember;
+    int offset2 = member2 * wordsPerMember;
+    for (int i = firstWord; i <= lastWord; i++) {
+      long mask = -1L;
+      if (i == firstWord) {
+        mask &= -1L << (first & 63);
+      }
+      if (i == lastWord) {
+        mask &= -1L >>> (63 - (last & 63));
+      }
+      long w1 = words.get(offset1 + i);
+      long w2 = words.get(offset2 + i);
+      long exchange = (w1 ^ w2) & mask;
+      words.put(offset1 + i, w1 ^ exchange);
+      words.put(offset2 + i, w2 ^ exchange);
+    }
+  }
+
+  /**
+   * Creates a BitVector with the same bits as a member.
+   *
+   * @param member the index of the member
+   * @return a new BitVector equal to the member
+   */
+  @Override
+  public BitVector toBitVector(int member) {
+    BitVector b = new BitVector(length);
+    int offset = member * wordsPerMember;
+    int length32 = (length + 31) >> 5;
+    for (int i = 0; i < length32; i++) {
+      b.set32(i, (int) (words.get(offset + (i >> 1)) >>> ((i & 1) << 5)));
+    }
+    return b;
+  }
+
+  private static int bytesRequired(int size, int length) {
+    if (size < 1 || length < 1) {
+      throw new IllegalArgumentException("size and length must be at least 1");
+    }
+    long bytes = (long) size * ((length + 63) >> 6) * Long.BYTES;
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("population too large for a single buffer");
+    }
+    return (int) bytes;
+  }
+}
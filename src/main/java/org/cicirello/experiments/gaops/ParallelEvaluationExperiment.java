@@ -0,0 +1,210 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+
+/**
+ * Experiment comparing the wall-clock time of a generational GA that evaluates fitness
+ * sequentially with one that evaluates fitness in parallel, across a range of population sizes and
+ * fitness function costs, to find where parallel evaluation pays for its synchronization overhead.
+ * Mutation, crossover, and selection do nothing, so fitness evaluation and the generation loop
+ * account for all of the time. The number of generations per trial is scaled inversely with
+ * population size so that each trial performs the same number of fitness evaluations.
+ *
+ * <p>Unlike the other experiments, this one measures elapsed time rather than CPU time, since the
+ * CPU time of the calling thread excludes the time of the evaluation threads. For the same reason,
+ * it runs its trials sequentially rather than with the {@link ParallelTrialRunner}. The number of
+ * evaluation threads is the value of the system property <code>evalThreads</code>, or the number
+ * of available processors if it is not set. The bytes allocated by a trial are summed over all of
+ * the live threads of the JVM, so that they include the allocations of the evaluation threads.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class ParallelEvaluationExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of fitness evaluations for each trial. */
+  private static final int EVALUATIONS_PER_TRIAL = 100000;
+
+  /** Length of the BitVectors. */
+  private static final int BIT_LENGTH = 64;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    int threads = Integer.getInteger("evalThreads", Runtime.getRuntime().availableProcessors());
+    int useToPreventOptimizingAway = 0;
+    int[] populationSizes = {100, 300, 1000, 3000, 10000};
+    int[] costs = {0, 100, 1000, 10000};
+    GenerationLoopExperiment.NoOpMutation mutation = new GenerationLoopExperiment.NoOpMutation();
+    GenerationLoopExperiment.NoOpCrossover crossover =
+        new GenerationLoopExperiment.NoOpCrossover();
+    GenerationLoopExperiment.NoOpSelection selection =
+        new GenerationLoopExperiment.NoOpSelection();
+    BitVectorInitializer initializer = new BitVectorInitializer(BIT_LENGTH);
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (int populationSize : populationSizes) {
+      for (int cost : costs) {
+        GenerationLoopExperiment.TunableCostFitness fitness =
+            new GenerationLoopExperiment.TunableCostFitness(cost);
+        GenerationalBitVectorGA sequential =
+            new GenerationalBitVectorGA(
+                populationSize, mutation, crossover, 0.5, initializer, fitness, selection);
+        ParallelEvaluationGA parallel =
+            new ParallelEvaluationGA(
+                populationSize, mutation, crossover, 0.5, initializer, fitness, selection, threads);
+        int generations = EVALUATIONS_PER_TRIAL / populationSize;
+        useToPreventOptimizingAway += sequential.optimize(generations).countOnes();
+        useToPreventOptimizingAway += parallel.optimize(generations).countOnes();
+        parallel.shutdown();
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.printf("Evaluation threads=%d%n", threads);
+    System.out.printf(
+        "%5s\t%5s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
+        "P",
+        "cost",
+        "sequential",
+        "parallel",
+        "%less-time",
+        "t",
+        "dof",
+        "p",
+        "seq-MB",
+        "par-MB",
+        "seq-gc",
+        "par-gc",
+        "seq-gcms",
+        "par-gcms");
+    for (int populationSize : populationSizes) {
+      int generations = EVALUATIONS_PER_TRIAL / populationSize;
+      for (int cost : costs) {
+        GenerationLoopExperiment.TunableCostFitness fitness =
+            new GenerationLoopExperiment.TunableCostFitness(cost);
+        GenerationalBitVectorGA sequential =
+            new GenerationalBitVectorGA(
+                populationSize, mutation, crossover, 0.5, initializer, fitness, selection);
+        ParallelEvaluationGA parallel =
+            new ParallelEvaluationGA(
+                populationSize, mutation, crossover, 0.5, initializer, fitness, selection, threads);
+        double[][] ms = new double[2][TRIALS];
+        double[][] bytes = new double[2][TRIALS];
+        double[][] gcCounts = new double[2][TRIALS];
+        double[][] gcTimes = new double[2][TRIALS];
+        for (int j = 0; j < TRIALS; j++) {
+          long startBytes = allocatedBytes();
+          long startCount = ParallelTrialRunner.collectionCount();
+          long startGcTime = ParallelTrialRunner.collectionTime();
+          long start = System.nanoTime();
+          useToPreventOptimizingAway += sequential.optimize(generations).countOnes();
+          long end = System.nanoTime();
+          long middleBytes = allocatedBytes();
+          long middleCount = ParallelTrialRunner.collectionCount();
+          long middleGcTime = ParallelTrialRunner.collectionTime();
+          long startParallel = System.nanoTime();
+          useToPreventOptimizingAway += parallel.optimize(generations).countOnes();
+          long endParallel = System.nanoTime();
+          long endBytes = allocatedBytes();
+          long endCount = ParallelTrialRunner.collectionCount();
+          long endGcTime = ParallelTrialRunner.collectionTime();
+          // compute elapsed times in nanoseconds
+          ms[0][j] = (end - start);
+          ms[1][j] = (endParallel - startParallel);
+          bytes[0][j] = (middleBytes - startBytes);
+          bytes[1][j] = (endBytes - middleBytes);
+          gcCounts[0][j] = (middleCount - startCount);
+          gcCounts[1][j] = (endCount - middleCount);
+          gcTimes[0][j] = (middleGcTime - startGcTime);
+          gcTimes[1][j] = (endGcTime - middleGcTime);
+        }
+        parallel.shutdown();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        // times are converted to seconds during output
+        double timeSequentialSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timeParallelSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeSequentialSeconds - timeParallelSeconds) / timeSequentialSeconds);
+
+        System.out.printf(
+            "%5d\t%5d\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
+            populationSize,
+            cost,
+            timeSequentialSeconds,
+            timeParallelSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            Statistics.mean(bytes[0]) / 1000000.0,
+            Statistics.mean(bytes[1]) / 1000000.0,
+            Statistics.mean(gcCounts[0]),
+            Statistics.mean(gcCounts[1]),
+            Statistics.mean(gcTimes[0]),
+            Statistics.mean(gcTimes[1]));
+      }
+    }
+    System.out.println();
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies sequential evaluation is faster.");
+    System.out.println("2) Positive t value implies parallel evaluation is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The cost column is the number of hash rounds per fitness evaluation.");
+    System.out.println("5) The -MB columns are the memory allocated per trial by all threads.");
+    System.out.println("6) The -gc columns are the garbage collections per trial, and the");
+    System.out.println("   -gcms columns their total time in milliseconds per trial.");
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+  }
+
+  /*
+   * Gets the total number of bytes allocated so far by all of the live threads of the JVM.
+   */
+  private static long allocatedBytes() {
+    ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long total = 0;
+    for (long bytes : bean.getThreadAllocatedBytes(bean.getAllThreadIds())) {
+      // a thread that has terminated since its id was obtained returns -1
+      total += Math.max(0, bytes);
+    }
+    return total;
+  }
+}
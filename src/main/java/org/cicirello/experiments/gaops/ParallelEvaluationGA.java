@@ -0,0 +1,101 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A generational genetic algorithm for BitVectors that evaluates the fitness of the population in
+ * parallel. The population is split into one contiguous block per thread, and the blocks are
+ * evaluated concurrently by a fork-join pool, after which the calling thread waits for all of them
+ * to complete. Every other stage of a generation is identical to that of {@link
+ * GenerationalBitVectorGA}. Parallel evaluation only pays for its synchronization cost, once per
+ * generation, if fitness evaluation is sufficiently expensive relative to the population size. The
+ * fitness function is shared by the threads, so it must be safe to call concurrently.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class ParallelEvaluationGA extends GenerationalBitVectorGA {
+
+  private final ForkJoinPool pool;
+  private final ArrayList<Callable<Object>> blocks;
+
+  /**
+   * Constructs the genetic algorithm.
+   *
+   * @param populationSize the size of the population
+   * @param mutation the mutation operator, which is applied to every member of the population
+   * @param crossover the crossover operator
+   * @param crossoverRate the probability that a pair of parents undergoes crossover
+   * @param initializer initializes the population
+   * @param f the fitness function, which must be thread-safe
+   * @param selection the selection operator
+   * @param threads the number of threads for fitness evaluation
+   * @throws IllegalArgumentException if threads is less than 1
+   */
+  public ParallelEvaluationGA(
+      int populationSize,
+      MutationOperator<BitVector> mutation,
+      CrossoverOperator<BitVector> crossover,
+      double crossoverRate,
+      Initializer<BitVector> initializer,
+      FitnessFunction.Integer<BitVector> f,
+      SelectionOperator selection,
+      int threads) {
+    super(populationSize, mutation, crossover, crossoverRate, initializer, f, selection);
+    if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+    threads = Math.min(threads, populationSize);
+    pool = new ForkJoinPool(threads);
+    blocks = new ArrayList<Callable<Object>>(threads);
+    for (int t = 0; t < threads; t++) {
+      final int first = (int) ((long) t * populationSize / threads);
+      final int last = (int) ((long) (t + 1) * populationSize / threads);
+      blocks.add(
+          () -> {
+            // population is replaced every generation, so must be read when the block runs
+            BitVector[] current = population;
+            for (int i = first; i < last; i++) {
+              fitness[i] = this.f.fitness(current[i]);
+            }
+            return null;
+          });
+    }
+  }
+
+  /** Computes the fitness of every member of the population in parallel. */
+  @Override
+  protected void evaluate() {
+    pool.invokeAll(blocks);
+    updateBest();
+  }
+
+  /** Shuts down the threads used for fitness evaluation. */
+  public void shutdown() {
+    pool.shutdown();
+  }
+}
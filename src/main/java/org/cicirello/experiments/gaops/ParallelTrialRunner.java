@@ -0,0 +1,280 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent trials of an experiment across the threads of a fork-join pool. Each trial
+ * runs all of the variants under comparison, one after the other, on a single thread, and records
+ * the CPU time and the bytes allocated by each variant with that thread's {@link ThreadMXBean}
+ * counters, along with the number of garbage collections during the variant and their total time
+ * from the {@link GarbageCollectorMXBean}s. Each worker thread gets its own instances of the
+ * variants, created by a setup function the first time that the thread runs a trial, so that
+ * mutable state (such as operators obtained via split()) is never shared between threads. The
+ * randomness in the experiments comes from per-thread generators (see {@link RandomSource}), so
+ * each worker thread also has its own random stream.
+ *
+ * <p>The number of threads defaults to the value of the system property <code>threads</code>, or 1
+ * if it is not set, so the experiments run their trials one after the other unless run with, for
+ * example, <code>java -Dthreads=8 ...</code>. With one thread, the trials run on the calling thread
+ * itself, and otherwise they run only on the threads of the pool, never on the calling thread.
+ * Running trials concurrently reduces wall-clock time roughly in proportion to the number of cores,
+ * but concurrent trials compete for shared caches and memory bandwidth, so CPU times per trial may
+ * be somewhat higher than with a single thread. The garbage collection counters are for the whole
+ * JVM, not per thread, so with more than one thread the collections recorded for a variant include
+ * those caused by the allocations of the trials running concurrently on the other threads.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class ParallelTrialRunner {
+
+  private static final List<GarbageCollectorMXBean> COLLECTORS =
+      ManagementFactory.getGarbageCollectorMXBeans();
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a trial runner with the number of threads specified by the system property <code>
+   * threads</code>, or 1 thread if that property is not set.
+   */
+  public ParallelTrialRunner() {
+    this(Integer.getInteger("threads", 1));
+  }
+
+  /**
+   * Constructs a trial runner.
+   *
+   * @param threads the number of threads
+   * @throws IllegalArgumentException if threads is less than 1
+   */
+  public ParallelTrialRunner(int threads) {
+    if (threads < 1) throw new IllegalArgumentException("threads must be at least 1");
+    pool = threads > 1 ? new ForkJoinPool(threads) : null;
+  }
+
+  /**
+   * Runs trials.
+   *
+   * @param trials the number of trials
+   * @param setup creates the variants for a worker thread, each of which runs one variant for one
+   *     trial; called once per thread that runs trials
+   * @return the results, with the CPU time, bytes allocated, garbage collections, and value of each
+   *     variant in each trial
+   */
+  public Results run(int trials, Supplier<Trial[]> setup) {
+    if (pool == null) {
+      Trial[] variants = setup.get();
+      Results results = new Results(variants.length, trials);
+      for (int trial = 0; trial < trials; trial++) {
+        runTrial(variants, trial, results);
+      }
+      return results;
+    }
+    ThreadLocal<Trial[]> variants = ThreadLocal.withInitial(setup);
+    // A root task forks the trials from within the pool, while the calling thread only waits for
+    // its result, so that no trial ever runs concurrently on the calling thread.
+    return CompletableFuture.supplyAsync(
+            () -> {
+              Results results = new Results(variants.get().length, trials);
+              ArrayList<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(trials);
+              for (int j = 0; j < trials; j++) {
+                final int trial = j;
+                tasks.add(ForkJoinTask.adapt(() -> runTrial(variants.get(), trial, results)));
+              }
+              ForkJoinTask.invokeAll(tasks);
+              return results;
+            },
+            pool)
+        .join();
+  }
+
+  /** Shuts down the threads of the trial runner. */
+  public void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Prints the note that explains the -gc and -gcms columns of an experiment's tables, as one of
+   * the numbered notes that follow the tables.
+   *
+   * @param note the number of the note
+   */
+  public static void printGcLegend(int note) {
+    System.out.println(note + ") The -gc columns are the garbage collections per trial, and the");
+    System.out.println("   -gcms columns their total time in milliseconds per trial. The JVM");
+    System.out.println("   counts collections for all threads, so with -Dthreads > 1 they");
+    System.out.println("   include those caused by trials running on the other threads.");
+  }
+
+  /*
+   * Runs all variants of one trial on the current thread.
+   */
+  private static void runTrial(Trial[] variants, int trial, Results results) {
+    ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    for (int v = 0; v < variants.length; v++) {
+      long startCount = collectionCount();
+      long startGcTime = collectionTime();
+      long startBytes = bean.getCurrentThreadAllocatedBytes();
+      long start = bean.getCurrentThreadCpuTime();
+      int value = variants[v].run();
+      long end = bean.getCurrentThreadCpuTime();
+      long endBytes = bean.getCurrentThreadAllocatedBytes();
+      long endGcTime = collectionTime();
+      long endCount = collectionCount();
+      // compute elapsed times in nanoseconds
+      results.ms[v][trial] = (end - start);
+      results.bytes[v][trial] = (endBytes - startBytes);
+      results.gcCounts[v][trial] = (endCount - startCount);
+      results.gcTimes[v][trial] = (endGcTime - startGcTime);
+      results.values[v][trial] = value;
+    }
+  }
+
+  /**
+   * Gets the total number of garbage collections so far by all collectors.
+   *
+   * @return the number of garbage collections
+   */
+  static long collectionCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean collector : COLLECTORS) {
+      // a collector that doesn't track its count returns -1
+      count += Math.max(0, collector.getCollectionCount());
+    }
+    return count;
+  }
+
+  /**
+   * Gets the total time in milliseconds of the garbage collections so far by all collectors.
+   *
+   * @return the garbage collection time in milliseconds
+   */
+  static long collectionTime() {
+    long time = 0;
+    for (GarbageCollectorMXBean collector : COLLECTORS) {
+      // a collector that doesn't track its time returns -1
+      time += Math.max(0, collector.getCollectionTime());
+    }
+    return time;
+  }
+
+  /** One variant of one trial of an experiment. */
+  @FunctionalInterface
+  public interface Trial {
+
+    /**
+     * Runs the trial.
+     *
+     * @return a value dependent upon the result of the trial, such as a solution's fitness, or a
+     *     meaningless value for purpose of preventing JIT from optimizing away the computation
+     */
+    int run();
+  }
+
+  /** The results of the trials. */
+  public static final class Results {
+
+    private final double[][] ms;
+    private final double[][] bytes;
+    private final double[][] gcCounts;
+    private final double[][] gcTimes;
+    private final int[][] values;
+
+    private Results(int numVariants, int trials) {
+      ms = new double[numVariants][trials];
+      bytes = new double[numVariants][trials];
+      gcCounts = new double[numVariants][trials];
+      gcTimes = new double[numVariants][trials];
+      values = new int[numVariants][trials];
+    }
+
+    /**
+     * Gets the CPU times in nanoseconds.
+     *
+     * @return the CPU times, indexed first by variant and then by trial
+     */
+    public double[][] times() {
+      return ms;
+    }
+
+    /**
+     * Gets the numbers of bytes allocated.
+     *
+     * @return the bytes allocated, indexed first by variant and then by trial
+     */
+    public double[][] bytes() {
+      return bytes;
+    }
+
+    /**
+     * Gets the numbers of garbage collections.
+     *
+     * @return the garbage collections, indexed first by variant and then by trial
+     */
+    public double[][] gcCounts() {
+      return gcCounts;
+    }
+
+    /**
+     * Gets the total times in milliseconds of the garbage collections.
+     *
+     * @return the garbage collection times, indexed first by variant and then by trial
+     */
+    public double[][] gcTimes() {
+      return gcTimes;
+    }
+
+    /**
+     * Gets the values returned by the trials.
+     *
+     * @return the values, indexed first by variant and then by trial
+     */
+    public int[][] values() {
+      return values;
+    }
+
+    /**
+     * Computes a meaningless value dependent upon all of the values returned by the trials, for
+     * purpose of preventing JIT from optimizing away the computation.
+     *
+     * @return the sum of the values
+     */
+    public int sum() {
+      int sum = 0;
+      for (int[] row : values) {
+        for (int value : row) {
+          sum += value;
+        }
+      }
+      return sum;
+    }
+  }
+}
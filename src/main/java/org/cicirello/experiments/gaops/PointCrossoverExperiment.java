@@ -0,0 +1,414 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.bits.SinglePointCrossover;
+import org.cicirello.search.operators.bits.TwoPointCrossover;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Experiment comparing the CPU time of single calls of single-point and two-point crossover, in
+ * isolation from the rest of a GA, the way {@link CrossoverExperiment} does for uniform crossover.
+ * For each bit length from 16 to 2<sup>20</sup>, it times the single-point and two-point crossover
+ * operators of the Chips-n-Salsa library, which {@link GAExperiment2} uses, against versions that
+ * exchange the bits between the cross points a whole 32-bit or 64-bit word at a time, masking only
+ * the two boundary words. Together with the number of crossovers per generation, this shows how
+ * much of the difference between the GA implementations of GAExperiment2 could come from the cost
+ * of the operators rather than from the generation loop.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class PointCrossoverExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of samples for each trial. Need multiple to ensure times are measurable. */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /** Shortest bit length of the experiment. */
+  private static final int MIN_BIT_LENGTH = 16;
+
+  /** Longest bit length of the experiment. */
+  private static final int MAX_BIT_LENGTH = 1 << 20;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    String[] names = {"1-point", "2-point"};
+    @SuppressWarnings("unchecked")
+    CrossoverOperator<BitVector>[][] operators =
+        new CrossoverOperator[][] {
+          {
+            new SinglePointCrossover(),
+            new BlockSinglePointCrossover32(),
+            new BlockSinglePointCrossover64()
+          },
+          {new TwoPointCrossover(), new BlockTwoPointCrossover32(), new BlockTwoPointCrossover64()}
+        };
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    for (CrossoverOperator<BitVector>[] variants : operators) {
+      BitVector v1 = new BitVector(1024, true);
+      BitVector v2 = new BitVector(1024, true);
+      useToPreventOptimizingAway += CrossoverExperiment.crossoverCodeToTime(variants[0], v1, v2);
+      useToPreventOptimizingAway += block32CodeToTime(variants[1], v1, v2, SAMPLES_PER_TRIAL);
+      useToPreventOptimizingAway += block64CodeToTime(variants[2], v1, v2, SAMPLES_PER_TRIAL);
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (int bitLength = MIN_BIT_LENGTH; bitLength <= MAX_BIT_LENGTH; bitLength *= 2) {
+      System.out.printf(
+          "%7s\t%8s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "operator",
+          "library",
+          "block32",
+          "block64",
+          "t-32",
+          "dof-32",
+          "p-32",
+          "t-64",
+          "dof-64",
+          "p-64",
+          "samples",
+          "touched-B",
+          "lib-ns",
+          "b32-ns",
+          "b64-ns",
+          "lib-B",
+          "b32-B",
+          "b64-B",
+          "lib-gc",
+          "b32-gc",
+          "b64-gc",
+          "lib-gcms",
+          "b32-gcms",
+          "b64-gcms");
+      for (int op = 0; op < operators.length; op++) {
+        CrossoverOperator<BitVector>[] variants = operators[op];
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(
+                SAMPLES_PER_TRIAL,
+                n,
+                samples ->
+                    () -> {
+                      // each thread crosses its own BitVectors with its own operators
+                      BitVector bits1 = new BitVector(n, true);
+                      BitVector bits2 = new BitVector(n, true);
+                      CrossoverOperator<BitVector> library = variants[0].split();
+                      CrossoverOperator<BitVector> block32 = variants[1].split();
+                      CrossoverOperator<BitVector> block64 = variants[2].split();
+                      return new ParallelTrialRunner.Trial[] {
+                        () ->
+                            CrossoverExperiment.crossoverCodeToTime(library, bits1, bits2, samples),
+                        () -> block32CodeToTime(block32, bits1, bits2, samples),
+                        () -> block64CodeToTime(block64, bits1, bits2, samples)
+                      };
+                    });
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest32 = sweep.tTest(ms, 0, 1);
+        Number[] tTest64 = sweep.tTest(ms, 0, 2);
+        // times are converted to seconds during output
+        System.out.printf(
+            "%7d\t%8s\t%12.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10.4f\t%10d\t%10.3g\t%10d\t%10d\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+            bitLength,
+            names[op],
+            sweep.seconds(ms, 0),
+            sweep.seconds(ms, 1),
+            sweep.seconds(ms, 2),
+            tTest32[0].doubleValue(),
+            tTest32[1].intValue(),
+            tTest32[2].doubleValue(),
+            tTest64[0].doubleValue(),
+            tTest64[1].intValue(),
+            tTest64[2].doubleValue(),
+            sweep.samples(),
+            // bytes of the bits of both parents, of which the crossovers exchange on average half
+            // (single-point) or a third (two-point)
+            2 * ((n + 7) / 8),
+            sweep.perSample(ms, 0),
+            sweep.perSample(ms, 1),
+            sweep.perSample(ms, 2),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2));
+      }
+      System.out.println();
+    }
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies the library version is faster.");
+    System.out.println("2) Positive t-32 (t-64) implies 32-bit (64-bit) block version is faster.");
+    System.out.println("3) The p columns are, well, the p values.");
+    System.out.println("4) Each trial performs samples crossovers, which is calibrated to the CPU");
+    System.out.println("   time of the slowest version for n > 1024. The touched-B column is the");
+    System.out.println("   size in bytes of both parents, the -ns columns are the CPU time per");
+    System.out.println("   crossover, and the -B columns are the bytes allocated per crossover.");
+    System.out.println("5) Multiplying lib-ns by the number of crossovers per generation, and by");
+    System.out.println("   the number of generations, gives the crossover time of a GA run, to");
+    System.out.println("   compare against the differences in run time from GAExperiment2.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /*
+   * Crosses 2 BitVectors a specified number of times with a 32-bit block version. Each column of
+   * the experiment is timed by a method of its own, so that each call site of cross sees only the
+   * single-point and two-point operators of one column, rather than all six operators.
+   */
+  private static int block32CodeToTime(
+      CrossoverOperator<BitVector> crossover, BitVector v1, BitVector v2, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (v1.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
+      crossover.cross(v1, v2);
+      int j = i % length32;
+      useToPreventOptimizingAway += v1.get32(j) + v2.get32(j);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Crosses 2 BitVectors a specified number of times with a 64-bit block version, from a call site
+   * of its own, like block32CodeToTime.
+   */
+  private static int block64CodeToTime(
+      CrossoverOperator<BitVector> crossover, BitVector v1, BitVector v2, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (v1.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
+      crossover.cross(v1, v2);
+      int j = i % length32;
+      useToPreventOptimizingAway += v1.get32(j) + v2.get32(j);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /**
+   * Exchanges a range of bits of two BitVectors, 32 bits at a time, masking only the first and last
+   * words of the range.
+   *
+   * @param c1 a BitVector
+   * @param c2 another BitVector of the same length
+   * @param first the index of the first bit of the range
+   * @param last the index of the last bit of the range, inclusive
+   */
+  public static void exchangeBits32(BitVector c1, BitVector c2, int first, int last) {
+    int firstWord = first >> 5;
+    int lastWord = last >> 5;
+    int firstMask = 0xffffffff << (first & 31);
+    int lastMask = 0xffffffff >>> (31 - (last & 31));
+    if (firstWord == lastWord) {
+      exchangeWord32(c1, c2, firstWord, firstMask & lastMask);
+      return;
+    }
+    exchangeWord32(c1, c2, firstWord, firstMask);
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      // all bits of the word are exchanged, so just swap the words
+      int w1 = c1.get32(i);
+      c1.set32(i, c2.get32(i));
+      c2.set32(i, w1);
+    }
+    exchangeWord32(c1, c2, lastWord, lastMask);
+  }
+
+  /**
+   * Exchanges a range of bits of two BitVectors, 64 bits at a time, masking only the first and last
+   * words of the range.
+   *
+   * @param c1 a BitVector
+   * @param c2 another BitVector of the same length
+   * @param first the index of the first bit of the range
+   * @param last the index of the last bit of the range, inclusive
+   */
+  public static void exchangeBits64(BitVector c1, BitVector c2, int first, int last) {
+    int firstWord = first >> 6;
+    int lastWord = last >> 6;
+    long firstMask = 0xffffffffffffffffL << (first & 63);
+    long lastMask = 0xffffffffffffffffL >>> (63 - (last & 63));
+    if (firstWord == lastWord) {
+      exchangeWord64(c1, c2, firstWord, firstMask & lastMask);
+      return;
+    }
+    exchangeWord64(c1, c2, firstWord, firstMask);
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      // all bits of the word are exchanged, so just swap the words
+      long w1 = c1.get64(i);
+      c1.set64(i, c2.get64(i));
+      c2.set64(i, w1);
+    }
+    exchangeWord64(c1, c2, lastWord, lastMask);
+  }
+
+  /*
+   * Exchanges the bits of a 32-bit word of two BitVectors wherever mask has 1-bits.
+   */
+  private static void exchangeWord32(BitVector c1, BitVector c2, int i, int mask) {
+    int w1 = c1.get32(i);
+    int w2 = c2.get32(i);
+    int exchange = (w1 ^ w2) & mask;
+    c1.set32(i, w1 ^ exchange);
+    c2.set32(i, w2 ^ exchange);
+  }
+
+  /*
+   * Exchanges the bits of a 64-bit word of two BitVectors wherever mask has 1-bits.
+   */
+  private static void exchangeWord64(BitVector c1, BitVector c2, int i, long mask) {
+    long w1 = c1.get64(i);
+    long w2 = c2.get64(i);
+    long exchange = (w1 ^ w2) & mask;
+    c1.set64(i, w1 ^ exchange);
+    c2.set64(i, w2 ^ exchange);
+  }
+
+  /*
+   * Draws two distinct cross points uniformly from [1, n-1], and returns them as
+   * the first and last index of the range of bits between them, packed into a long.
+   */
+  private static long twoPoints(int n) {
+    RandomGenerator r = RandomSource.current();
+    int i = r.nextInt(1, n);
+    int j = r.nextInt(1, n - 1);
+    if (j >= i) {
+      j++;
+    } else {
+      int temp = i;
+      i = j;
+      j = temp;
+    }
+    return ((long) i << 32) | (j - 1);
+  }
+
+  /**
+   * Single-point crossover, which exchanges all bits before a random cross point, swapping whole
+   * 32-bit words and masking only the word that contains the cross point. Requires BitVectors of
+   * length at least 2.
+   */
+  public static final class BlockSinglePointCrossover32 implements CrossoverOperator<BitVector> {
+
+    /** Constructs a single-point crossover operator. */
+    public BlockSinglePointCrossover32() {}
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      int point = RandomSource.current().nextInt(1, c1.length());
+      exchangeBits32(c1, c2, 0, point - 1);
+    }
+
+    @Override
+    public BlockSinglePointCrossover32 split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Single-point crossover, which exchanges all bits before a random cross point, swapping whole
+   * 64-bit words and masking only the word that contains the cross point. Requires BitVectors of
+   * length at least 2.
+   */
+  public static final class BlockSinglePointCrossover64 implements CrossoverOperator<BitVector> {
+
+    /** Constructs a single-point crossover operator. */
+    public BlockSinglePointCrossover64() {}
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      int point = RandomSource.current().nextInt(1, c1.length());
+      exchangeBits64(c1, c2, 0, point - 1);
+    }
+
+    @Override
+    public BlockSinglePointCrossover64 split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Two-point crossover, which exchanges all bits between two distinct random cross points,
+   * swapping whole 32-bit words and masking only the words that contain the cross points. Requires
+   * BitVectors of length at least 3.
+   */
+  public static final class BlockTwoPointCrossover32 implements CrossoverOperator<BitVector> {
+
+    /** Constructs a two-point crossover operator. */
+    public BlockTwoPointCrossover32() {}
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      long points = twoPoints(c1.length());
+      exchangeBits32(c1, c2, (int) (points >>> 32), (int) points);
+    }
+
+    @Override
+    public BlockTwoPointCrossover32 split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+
+  /**
+   * Two-point crossover, which exchanges all bits between two distinct random cross points,
+   * swapping whole 64-bit words and masking only the words that contain the cross points. Requires
+   * BitVectors of length at least 3.
+   */
+  public static final class BlockTwoPointCrossover64 implements CrossoverOperator<BitVector> {
+
+    /** Constructs a two-point crossover operator. */
+    public BlockTwoPointCrossover64() {}
+
+    @Override
+    public void cross(BitVector c1, BitVector c2) {
+      long points = twoPoints(c1.length());
+      exchangeBits64(c1, c2, (int) (points >>> 32), (int) points);
+    }
+
+    @Override
+    public BlockTwoPointCrossover64 split() {
+      // Maintains no mutable state, so just return this.
+      return this;
+    }
+  }
+}
@@ -0,0 +1,216 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * A population of bit strings stored in a single contiguous array of ints, rather than as separate
+ * BitVector objects each with its own backing array. Member i occupies the ints beginning at
+ * offset i * {@link #wordsPerMember}, with bit j of a member in bit j % 32 of that member's int j /
+ * 32, which is the same layout as a BitVector's 32-bit blocks. Copying a member, exchanging bits
+ * between members, and flipping bits are all operations on offsets into the array, so a GA that
+ * uses a pair of arenas for the current and next population allocates no memory per generation.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class PopulationArena implements BitPopulation<PopulationArena> {
+
+  private final int[] words;
+  private final int size;
+  private final int length;
+  private final int wordsPerMember;
+  private final int lastWordMask;
+
+  /**
+   * Constructs an arena of bit strings that are initially all zeros.
+   *
+   * @param size the number of members of the population
+   * @param length the length of each bit string
+   * @throws IllegalArgumentException if size or length is less than 1
+   */
+  public PopulationArena(int size, int length) {
+    if (size < 1 || length < 1) {
+      throw new IllegalArgumentException("size and length must be at least 1");
+    }
+    this.size = size;
+    this.length = length;
+    wordsPerMember = (length + 31) >> 5;
+    lastWordMask = (length & 31) == 0 ? 0xffffffff : 0xffffffff >>> (32 - (length & 31));
+    words = new int[size * wordsPerMember];
+  }
+
+  /**
+   * Gets the number of members of the population.
+   *
+   * @return the number of members
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Gets the length of each bit string.
+   *
+   * @return the length in bits
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Gets the number of ints occupied by each member.
+   *
+   * @return the number of ints per member
+   */
+  public int wordsPerMember() {
+    return wordsPerMember;
+  }
+
+  /** Sets every bit of every member uniformly at random. */
+  @Override
+  public void randomize() {
+    RandomGenerator r = RandomSource.current();
+    for (int i = 0; i < words.length; i++) {
+      words[i] = r.nextInt();
+    }
+    for (int i = wordsPerMember - 1; i < words.length; i += wordsPerMember) {
+      words[i] &= lastWordMask;
+    }
+  }
+
+  /**
+   * Gets a bit of a member.
+   *
+   * @param member the index of the member
+   * @param index the index of the bit
+   * @return the bit, either 0 or 1
+   */
+  @Override
+  public int getBit(int member, int index) {
+    return (words[member * wordsPerMember + (index >> 5)] >>> (index & 31)) & 1;
+  }
+
+  /**
+   * Flips a bit of a member.
+   *
+   * @param member the index of the member
+   * @param index the index of the bit
+   */
+  @Override
+  public void flip(int member, int index) {
+    words[member * wordsPerMember + (index >> 5)] ^= 1 << (index & 31);
+  }
+
+  /**
+   * Counts the 1-bits of a member.
+   *
+   * @param member the index of the member
+   * @return the number of 1-bits
+   */
+  @Override
+  public int countOnes(int member) {
+    int count = 0;
+    int end = (member + 1) * wordsPerMember;
+    for (int i = member * wordsPerMember; i < end; i++) {
+      count += Integer.bitCount(words[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Copies a member of this arena into another arena with members of the same length.
+   *
+   * @param member the index of the member to copy
+   * @param dest the destination arena, which may be this arena
+   * @param destMember the index in dest of the member to overwrite
+   */
+  @Override
+  public void copy(int member, PopulationArena dest, int destMember) {
+    System.arraycopy(
+        words, member * wordsPerMember, dest.words, destMember * wordsPerMember, wordsPerMember);
+  }
+
+  /**
+   * Exchanges the bits of two members wherever a mask has 1-bits.
+   *
+   * @param member1 the index of the first member
+   * @param member2 the index of the second member
+   * @param mask the mask, in the same layout as a member, with length at least {@link
+   *     #wordsPerMember}
+   */
+  @Override
+  public void exchangeBits(int member1, int member2, int[] mask) {
+    int offset1 = member1 * wordsPerMember;
+    int offset2 = member2 * wordsPerMember;
+    for (int i = 0; i < wordsPerMember; i++) {
+      int exchange = (words[offset1 + i] ^ words[offset2 + i]) & mask[i];
+      words[offset1 + i] ^= exchange;
+      words[offset2 + i] ^= exchange;
+    }
+  }
+
+  /**
+   * Exchanges a range of bits of two members, 32 bits at a time.
+   *
+   * @param member1 the index of the first member
+   * @param member2 the index of the second member
+   * @param first the index of the first bit of the range
+   * @param last the index of the last bit of the range, inclusive
+   */
+  @Override
+  public void exchangeBits(int member1, int member2, int first, int last) {
+    int firstWord = first >> 5;
+    int lastWord = last >> 5;
+    int offset1 = member1 * wordsPerMember;
+    int offset2 = member2 * wordsPerMember;
+    for (int i = firstWord; i <= lastWord; i++) {
+      int mask = 0xffffffff;
+      if (i == firstWord) {
+        mask &= 0xffffffff << (first & 31);
+      }
+      if (i == lastWord) {
+        mask &= 0xffffffff >>> (31 - (last & 31));
+      }
+      int exchange = (words[offset1 + i] ^ words[offset2 + i]) & mask;
+      words[offset1 + i] ^= exchange;
+      words[offset2 + i] ^= exchange;
+    }
+  }
+
+  /**
+   * Creates a BitVector with the same bits as a member.
+   *
+   * @param member the index of the member
+   * @return a new BitVector equal to the member
+   */
+  @Override
+  public BitVector toBitVector(int member) {
+    BitVector b = new BitVector(length);
+    int offset = member * wordsPerMember;
+    for (int i = 0; i < wordsPerMember; i++) {
+      b.set32(i, words[offset + i]);
+    }
+    return b;
+  }
+}
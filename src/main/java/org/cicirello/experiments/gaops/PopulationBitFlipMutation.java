@@ -0,0 +1,99 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.random.RandomGenerator;
+import org.cicirello.math.rand.RandomSampler;
+import org.cicirello.math.rand.RandomVariates;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Bit-flip mutation of an entire population at once. The bits of all members of the population are
+ * treated as a single index space of size P*n, where P is the population size and n is the length
+ * of the BitVectors. A single binomial determines the number of bits to flip across the whole
+ * population, the indexes of those bits are sampled from the combined index space, and each flip
+ * is then dispatched to the member of the population that owns that index. The sampling is a
+ * partial Fisher-Yates shuffle of a reusable pool of indexes, so a mutation of the population
+ * allocates no memory after the first.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class PopulationBitFlipMutation implements MutationOperator<BitVector> {
+
+  private final double m;
+  private int[] pool;
+
+  /**
+   * Constructs a PopulationBitFlipMutation operator with a specified mutation rate.
+   *
+   * @param m The mutation rate, which is the probability of flipping any individual bit.
+   * @throws IllegalArgumentException if m &le; 0 or if m &ge; 1.
+   */
+  public PopulationBitFlipMutation(double m) {
+    if (m <= 0 || m >= 1) throw new IllegalArgumentException("m constrained by: 0.0 < m < 1.0");
+    this.m = m;
+  }
+
+  /**
+   * Mutates every member of a population.
+   *
+   * @param population the population, whose members must all be of the same length
+   */
+  public void mutate(BitVector[] population) {
+    int n = population[0].length();
+    int total = population.length * n;
+    if (pool == null || pool.length != total) {
+      pool = BitmaskGenerationExperiment.indexPool(total);
+    }
+    RandomGenerator r = RandomSource.current();
+    int k = RandomVariates.nextBinomial(total, m, r);
+    for (int j = 0; j < k; j++) {
+      int swap = r.nextInt(j, total);
+      int index = pool[swap];
+      pool[swap] = pool[j];
+      pool[j] = index;
+      int member = index / n;
+      population[member].flip(index - member * n);
+    }
+  }
+
+  /**
+   * Mutates a single BitVector, using the binomial distribution to choose the number of bits to
+   * flip as in Chips-n-Salsa's BitFlipMutation.
+   *
+   * @param c the BitVector to mutate
+   */
+  @Override
+  public void mutate(BitVector c) {
+    int n = c.length();
+    RandomGenerator r = RandomSource.current();
+    int[] bitsToFlip = RandomSampler.sample(n, RandomVariates.nextBinomial(n, m, r), null, r);
+    for (int index : bitsToFlip) {
+      c.flip(index);
+    }
+  }
+
+  @Override
+  public PopulationBitFlipMutation split() {
+    // each instance needs its own pool
+    return new PopulationBitFlipMutation(m);
+  }
+}
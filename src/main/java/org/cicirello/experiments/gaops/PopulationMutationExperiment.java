@@ -0,0 +1,240 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.evo.FitnessFunction;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.Initializer;
+import org.cicirello.search.operators.bits.BitFlipMutation;
+import org.cicirello.search.operators.bits.BitVectorInitializer;
+import org.cicirello.search.operators.bits.UniformCrossover;
+import org.cicirello.search.representations.BitVector;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time of two alternative GAs that differ only in how mutation is applied
+ * to the population: bit-flip mutation of each individual, where the binomial is used to choose
+ * the number of bits to flip of each individual; vs a population-level bit-flip mutation that draws
+ * a single binomial for the whole population and dispatches each flip to the individual that owns
+ * the bit. The GA otherwise follows the setup of {@link GAExperiment}.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class PopulationMutationExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of generations for each trial. */
+  private static final int GENERATIONS_PER_TRIAL = 1000;
+
+  /** Size of the population. */
+  private static final int POPULATION_SIZE = 100;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    GAExperiment.OneMaxFitness fitness = new GAExperiment.OneMaxFitness();
+    final int BIT_LENGTH = 1024;
+    final double MUTATION_RATE = 1.0 / BIT_LENGTH;
+    double[] U_VALUES = {0.33, 0.49};
+
+    DoubleList valuesOfC = new DoubleList();
+    double[] rates = {0.05, 0.15, 0.25, 0.35, 0.45, 0.55, 0.65, 0.75, 0.85, 0.95};
+    for (double c : rates) {
+      valuesOfC.add(c);
+    }
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (double u : U_VALUES) {
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+        GenerationalBitVectorGA individual =
+            new GenerationalBitVectorGA(
+                POPULATION_SIZE,
+                new BitFlipMutation(MUTATION_RATE),
+                new UniformCrossover(u),
+                c,
+                new BitVectorInitializer(BIT_LENGTH),
+                fitness,
+                new StochasticUniversalSampling());
+        PopulationMutationGA population =
+            new PopulationMutationGA(
+                POPULATION_SIZE,
+                new PopulationBitFlipMutation(MUTATION_RATE),
+                new UniformCrossover(u),
+                c,
+                new BitVectorInitializer(BIT_LENGTH),
+                fitness,
+                new StochasticUniversalSampling());
+        useToPreventOptimizingAway += individual.optimize(GENERATIONS_PER_TRIAL).countOnes();
+        useToPreventOptimizingAway += population.optimize(GENERATIONS_PER_TRIAL).countOnes();
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    for (double u : U_VALUES) {
+      System.out.printf("Uniform Crossover Parameter U=%3.2f%n", u);
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s%n",
+          "c",
+          "individual",
+          "population",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "ind-ones",
+          "pop-ones",
+          "t-ones",
+          "dof-ones",
+          "p-ones",
+          "ind-MB",
+          "pop-MB",
+          "ind-gc",
+          "pop-gc",
+          "ind-gcms",
+          "pop-gcms");
+      for (int i = 0; i < valuesOfC.size(); i++) {
+        double c = valuesOfC.get(i);
+        ParallelTrialRunner.Results results =
+            runner.run(
+                TRIALS,
+                () -> {
+                  // each thread needs its own GAs, since operators are not thread-safe
+                  GenerationalBitVectorGA individual =
+                      new GenerationalBitVectorGA(
+                          POPULATION_SIZE,
+                          new BitFlipMutation(MUTATION_RATE),
+                          new UniformCrossover(u),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitness,
+                          new StochasticUniversalSampling());
+                  PopulationMutationGA population =
+                      new PopulationMutationGA(
+                          POPULATION_SIZE,
+                          new PopulationBitFlipMutation(MUTATION_RATE),
+                          new UniformCrossover(u),
+                          c,
+                          new BitVectorInitializer(BIT_LENGTH),
+                          fitness,
+                          new StochasticUniversalSampling());
+                  return new ParallelTrialRunner.Trial[] {
+                    () -> fitness.value(individual.optimize(GENERATIONS_PER_TRIAL)),
+                    () -> fitness.value(population.optimize(GENERATIONS_PER_TRIAL))
+                  };
+                });
+        double[][] ms = results.times();
+        // the trials return the number of ones in the best solutions
+        int[][] onesCounts = results.values();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[0], ms[1]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        Number[] tTestCounts = Statistics.tTestWelch(onesCounts[0], onesCounts[1]);
+        double tCounts = tTestCounts[0].doubleValue();
+        int dofCounts = tTestCounts[1].intValue();
+        double pCounts = Statistics.p(tCounts, dofCounts);
+
+        // times are converted to seconds during output
+        double timeIndividualSeconds = Statistics.mean(ms[0]) / 1000000000.0;
+        double timePopulationSeconds = Statistics.mean(ms[1]) / 1000000000.0;
+        double percentLessTime =
+            100 * ((timeIndividualSeconds - timePopulationSeconds) / timeIndividualSeconds);
+
+        System.out.printf(
+            "%3.2f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.2f\t%12.2f\t%10.4f\t%10d\t%10.3g\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f%n",
+            c,
+            timeIndividualSeconds,
+            timePopulationSeconds,
+            percentLessTime,
+            t,
+            dof,
+            p,
+            Statistics.mean(onesCounts[0]),
+            Statistics.mean(onesCounts[1]),
+            tCounts,
+            dofCounts,
+            pCounts,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]));
+      }
+      System.out.println();
+    }
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies per-individual mutation is faster.");
+    System.out.println("2) Positive t value implies population-level mutation is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The ones columns compare solution quality, which should not differ.");
+    System.out.println("5) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /** A GA that mutates the entire population with a single population-level mutation. */
+  private static final class PopulationMutationGA extends GenerationalBitVectorGA {
+
+    private final PopulationBitFlipMutation populationMutation;
+
+    /*
+     * Constructs the GA (see superclass for parameter descriptions).
+     */
+    private PopulationMutationGA(
+        int populationSize,
+        PopulationBitFlipMutation mutation,
+        CrossoverOperator<BitVector> crossover,
+        double crossoverRate,
+        Initializer<BitVector> initializer,
+        FitnessFunction.Integer<BitVector> f,
+        SelectionOperator selection) {
+      super(populationSize, mutation, crossover, crossoverRate, initializer, f, selection);
+      populationMutation = mutation;
+    }
+
+    @Override
+    protected void mutate() {
+      populationMutation.mutate(population);
+    }
+  }
+}
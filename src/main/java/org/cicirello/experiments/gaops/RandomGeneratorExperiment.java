@@ -0,0 +1,330 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.function.Supplier;
+import org.cicirello.search.operators.CrossoverOperator;
+import org.cicirello.search.operators.MutationOperator;
+import org.cicirello.search.representations.BitVector;
+import org.cicirello.util.DoubleList;
+
+/**
+ * Experiment comparing CPU time of the simple per-bit approach and the optimized approach that uses
+ * the binomial distribution, for bit masks, bit-flip mutation, and uniform crossover, with the
+ * random number generator algorithm specified by the system property <code>random</code> (see
+ * {@link RandomSource}). The simple versions get the generator of the thread and call nextDouble()
+ * once per bit, while the optimized versions draw one binomial random variate and then a random
+ * index per bit that they set, so the speed of the generator affects the two differently. The
+ * hoisted versions are the simple versions with the generator gotten once per call, which shows the
+ * cost of getting the generator of the thread for each bit. Unlike the other experiments, the
+ * optimized versions are those of this repository ({@link
+ * BitmaskGenerationExperiment#bitMaskOptimized(int, double)}, {@link DeltaBitFlipMutation}, and
+ * {@link DeltaUniformCrossover}) rather than those of the Chips-n-Salsa library, since the
+ * library's operators have their own source of randomness.
+ *
+ * <p>Each run of the experiment uses one algorithm. Run it once per algorithm, such as with <code>
+ * java -Drandom=Xoshiro256PlusPlus ...</code>, which is what the <code>random</code> target of the
+ * Makefile does for ThreadLocalRandom, SplittableRandom, L64X128MixRandom, and Xoshiro256PlusPlus.
+ * Running each algorithm in its own JVM keeps the calls to the generator monomorphic, as they would
+ * be in a deployed GA, rather than penalizing whichever algorithms the JIT compiler sees second.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class RandomGeneratorExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of samples for each trial. Need multiple to ensure times are measurable. */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /** The operations that generate random bits. */
+  private enum Operation {
+    MASK,
+    MUTATION,
+    CROSSOVER
+  }
+
+  /*
+   * Creates the setup function of the simple, optimized, and hoisted variants for one operation,
+   * bit length, and probability, where each variant performs samples calls.
+   */
+  private static Supplier<ParallelTrialRunner.Trial[]> variants(
+      Operation operation, int n, double u, int samples) {
+    switch (operation) {
+      case MASK:
+        return () ->
+            new ParallelTrialRunner.Trial[] {
+              () -> {
+                int sink = 0;
+                for (int k = 0; k < samples; k++) {
+                  int[] maskSimple = BitmaskGenerationExperiment.bitMaskSimple(n, u);
+                  sink += maskSimple[k % maskSimple.length];
+                }
+                return sink;
+              },
+              () -> {
+                int sink = 0;
+                for (int k = 0; k < samples; k++) {
+                  int[] maskOptimized = BitmaskGenerationExperiment.bitMaskOptimized(n, u);
+                  sink += maskOptimized[k % maskOptimized.length];
+                }
+                return sink;
+              },
+              () -> {
+                int sink = 0;
+                for (int k = 0; k < samples; k++) {
+                  int[] maskHoisted = BitmaskGenerationExperiment.bitMaskHoisted(n, u);
+                  sink += maskHoisted[k % maskHoisted.length];
+                }
+                return sink;
+              }
+            };
+      case MUTATION:
+        return () -> {
+          // each thread mutates its own BitVector with its own operators
+          BitVector bits = new BitVector(n);
+          MutationOperator<BitVector> simple = new MutationExperiment.SimpleBitFlipMutation(u);
+          MutationOperator<BitVector> optimized = new DeltaBitFlipMutation(u);
+          MutationExperiment.HoistedBitFlipMutation hoisted =
+              new MutationExperiment.HoistedBitFlipMutation(u);
+          return new ParallelTrialRunner.Trial[] {
+            () -> MutationExperiment.mutationCodeToTime(simple, bits, samples),
+            () -> MutationExperiment.mutationCodeToTime(optimized, bits, samples),
+            () -> hoistedCodeToTime(hoisted, bits, samples)
+          };
+        };
+      default:
+        return () -> {
+          // each thread crosses its own BitVectors with its own operators
+          BitVector bits1 = new BitVector(n, true);
+          BitVector bits2 = new BitVector(n, true);
+          CrossoverOperator<BitVector> simple = new CrossoverExperiment.SimpleUniformCrossover(u);
+          CrossoverOperator<BitVector> optimized = new DeltaUniformCrossover(u);
+          CrossoverExperiment.HoistedUniformCrossover hoisted =
+              new CrossoverExperiment.HoistedUniformCrossover(u);
+          return new ParallelTrialRunner.Trial[] {
+            () -> CrossoverExperiment.crossoverCodeToTime(simple, bits1, bits2, samples),
+            () -> CrossoverExperiment.crossoverCodeToTime(optimized, bits1, bits2, samples),
+            () -> hoistedCodeToTime(hoisted, bits1, bits2, samples)
+          };
+        };
+    }
+  }
+
+  /*
+   * Mutates a BitVector a specified number of times with the hoisted version, from a call site of
+   * its own, so that the call of mutate in MutationExperiment.mutationCodeToTime sees only the
+   * simple and optimized versions rather than becoming megamorphic.
+   */
+  private static int hoistedCodeToTime(
+      MutationExperiment.HoistedBitFlipMutation mutation, BitVector mutateMe, int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (mutateMe.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
+      mutation.mutate(mutateMe);
+      useToPreventOptimizingAway += mutateMe.get32(i % length32);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Crosses 2 BitVectors a specified number of times with the hoisted version, from a call site of
+   * its own, like the hoisted mutation.
+   */
+  private static int hoistedCodeToTime(
+      CrossoverExperiment.HoistedUniformCrossover crossover,
+      BitVector v1,
+      BitVector v2,
+      int samples) {
+    int useToPreventOptimizingAway = 0;
+    int length32 = (v1.length() + 31) >> 5;
+    for (int i = 0; i < samples; i++) {
+      crossover.cross(v1, v2);
+      int j = i % length32;
+      useToPreventOptimizingAway += v1.get32(j) + v2.get32(j);
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /*
+   * Gets the probabilities of the experiment for an operation and bit length, which are those of
+   * the BitmaskGenerationExperiment, MutationExperiment, and CrossoverExperiment.
+   */
+  private static DoubleList probabilities(Operation operation, int n) {
+    DoubleList values = new DoubleList();
+    switch (operation) {
+      case MASK:
+        for (double u = 1.0 / n; u - 0.5 <= 1E-10; u *= 2) {
+          values.add(u);
+        }
+        values.add(0.625);
+        values.add(0.75);
+        values.add(0.875);
+        break;
+      case MUTATION:
+        for (double m = 1.0 / n; m - 0.25 <= 1E-10; m *= 2) {
+          values.add(m);
+        }
+        break;
+      default:
+        for (double u : new double[] {0.1, 0.2, 0.3, 0.4, 0.5}) {
+          values.add(u);
+        }
+    }
+    return values;
+  }
+
+  /*
+   * Runs the table of the experiment for one operation, with a row per bit length and probability.
+   */
+  private static int runTable(ParallelTrialRunner runner, Operation operation) {
+    int useToPreventOptimizingAway = 0;
+    for (int bitLength = BitLengthSweep.first();
+        bitLength <= BitLengthSweep.last();
+        bitLength *= 2) {
+      System.out.printf(
+          "%4s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%12s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%10s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+          "n",
+          "u",
+          "simple",
+          "optimized",
+          "%less-time",
+          "t",
+          "dof",
+          "p",
+          "hoisted",
+          "t-hoi",
+          "dof-hoi",
+          "p-hoi",
+          "simple-ns",
+          "opt-ns",
+          "hoi-ns",
+          "samples",
+          "simple-B",
+          "opt-B",
+          "hoi-B",
+          "simple-gc",
+          "opt-gc",
+          "hoi-gc",
+          "simple-gcms",
+          "opt-gcms",
+          "hoi-gcms");
+      DoubleList valuesOfU = probabilities(operation, bitLength);
+      for (int i = 0; i < valuesOfU.size(); i++) {
+        double u = valuesOfU.get(i);
+        final int n = bitLength;
+        BitLengthSweep.Calibration sweep =
+            BitLengthSweep.calibrate(
+                SAMPLES_PER_TRIAL, n, samples -> variants(operation, n, u, samples));
+        ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+        Number[] tTest = sweep.tTest(ms, 0, 1);
+        Number[] tTestHoisted = sweep.tTest(ms, 0, 2);
+        // times are converted to seconds during output
+        double timeSimpleSeconds = sweep.seconds(ms, 0);
+        double timeOptimizedSeconds = sweep.seconds(ms, 1);
+        double percentLessTime =
+            100 * ((timeSimpleSeconds - timeOptimizedSeconds) / timeSimpleSeconds);
+        System.out.printf(
+            "%4d\t%11.10f\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10d\t%10.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%12.4g\t%12.4g\t%12.4g\t%10d\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+            n,
+            u,
+            timeSimpleSeconds,
+            timeOptimizedSeconds,
+            percentLessTime,
+            tTest[0].doubleValue(),
+            tTest[1].intValue(),
+            tTest[2].doubleValue(),
+            sweep.seconds(ms, 2),
+            tTestHoisted[0].doubleValue(),
+            tTestHoisted[1].intValue(),
+            tTestHoisted[2].doubleValue(),
+            sweep.perSample(ms, 0),
+            sweep.perSample(ms, 1),
+            sweep.perSample(ms, 2),
+            sweep.samples(),
+            sweep.perSample(results.bytes(), 0),
+            sweep.perSample(results.bytes(), 1),
+            sweep.perSample(results.bytes(), 2),
+            sweep.perTrial(results.gcCounts(), 0),
+            sweep.perTrial(results.gcCounts(), 1),
+            sweep.perTrial(results.gcCounts(), 2),
+            sweep.perTrial(results.gcTimes(), 0),
+            sweep.perTrial(results.gcTimes(), 1),
+            sweep.perTrial(results.gcTimes(), 2));
+      }
+      System.out.println();
+    }
+    return useToPreventOptimizingAway;
+  }
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    for (Operation operation : Operation.values()) {
+      DoubleList valuesOfU = probabilities(operation, 1024);
+      for (int i = 0; i < valuesOfU.size(); i++) {
+        for (ParallelTrialRunner.Trial trial :
+            variants(operation, 1024, valuesOfU.get(i), SAMPLES_PER_TRIAL / 10).get()) {
+          useToPreventOptimizingAway += trial.run();
+        }
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.println("Random number generator: " + RandomSource.algorithm());
+    System.out.println();
+    System.out.println("Bit masks");
+    useToPreventOptimizingAway += runTable(runner, Operation.MASK);
+    System.out.println("Bit-flip mutation");
+    useToPreventOptimizingAway += runTable(runner, Operation.MUTATION);
+    System.out.println("Uniform crossover");
+    useToPreventOptimizingAway += runTable(runner, Operation.CROSSOVER);
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) Negative t value implies simple version is faster.");
+    System.out.println("2) Positive t value implies optimized version is faster.");
+    System.out.println("3) The p column is, well, the p value.");
+    System.out.println("4) The -ns columns are the CPU time per call. Compare the output of runs");
+    System.out.println("   with different generators to see how the choice of generator changes");
+    System.out.println("   the speedup of the optimized version.");
+    System.out.println("5) The t-hoi column compares the simple version to the hoisted version,");
+    System.out.println("   which gets the generator once per call rather than once per bit:");
+    System.out.println("   positive t implies the hoisted version is faster.");
+    System.out.println("6) The -B columns are the bytes allocated per call.");
+    ParallelTrialRunner.printGcLegend(7);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * The source of randomness of the bit masks, operators, and populations of the experiments. The
+ * random number generator algorithm is specified by the system property <code>random</code>, such
+ * as with <code>java -Drandom=L64X128MixRandom ...</code>, and may be the name of any algorithm
+ * supported by {@link RandomGeneratorFactory}, such as SplittableRandom, L64X128MixRandom, or
+ * Xoshiro256PlusPlus. If it is not set, or is ThreadLocalRandom, the experiments use {@link
+ * ThreadLocalRandom}, as in the original experiments. Otherwise, each thread has its own generator
+ * of the specified algorithm. The algorithm is fixed for the lifetime of the JVM, so that calls to
+ * the generators in the hot loops of the experiments remain monomorphic, and comparing algorithms
+ * requires a run per algorithm (see {@link RandomGeneratorExperiment}).
+ *
+ * <p>The operators of the Chips-n-Salsa library, such as its BitFlipMutation and UniformCrossover,
+ * use their own source of randomness, and are unaffected by this property.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public final class RandomSource {
+
+  /** The name of the ThreadLocalRandom algorithm, which is the default. */
+  public static final String THREAD_LOCAL_RANDOM = "ThreadLocalRandom";
+
+  private static final String ALGORITHM = System.getProperty("random", THREAD_LOCAL_RANDOM);
+
+  /** Generators of the threads, or null if using ThreadLocalRandom. */
+  private static final ThreadLocal<RandomGenerator> GENERATORS;
+
+  static {
+    if (ALGORITHM.equals(THREAD_LOCAL_RANDOM)) {
+      GENERATORS = null;
+    } else {
+      // fails fast if the algorithm is not supported
+      RandomGeneratorFactory<RandomGenerator> factory = RandomGeneratorFactory.of(ALGORITHM);
+      GENERATORS = ThreadLocal.withInitial(factory::create);
+    }
+  }
+
+  private RandomSource() {}
+
+  /**
+   * Gets the random number generator of the current thread.
+   *
+   * @return the random number generator of the current thread
+   */
+  public static RandomGenerator current() {
+    return GENERATORS == null ? ThreadLocalRandom.current() : GENERATORS.get();
+  }
+
+  /**
+   * Gets the name of the random number generator algorithm.
+   *
+   * @return the name of the algorithm
+   */
+  public static String algorithm() {
+    return ALGORITHM;
+  }
+}
@@ -0,0 +1,488 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Checks the word-at-a-time population representations of the experiments, {@link PopulationArena}
+ * and {@link OffHeapPopulation} (both in a direct buffer and in a memory-mapped file), and the
+ * operators that work on them, against a reference model that works one bit at a time on
+ * BitVectors. The bit operations of a population (flipping, copying, and exchanging bits, and
+ * counting 1-bits) are run in a random sequence alongside the same operations on one BitVector per
+ * member, and every member is compared to its BitVector after each operation, including that the
+ * unused bits of its last word remain 0. The randomized operators are checked statistically: the
+ * frequency with which each bit is flipped or exchanged, over many calls, must be within {@link
+ * #SIGMAS} standard deviations of the probability implied by the operator's parameters, and members
+ * not passed to the operator must be unchanged.
+ *
+ * <p>It also checks {@link BinomialSampler}, whose CDF is computed by a recurrence from the mode
+ * and truncated in the tails, against the exact binomial distribution. It is given chosen values of
+ * u in place of the random double that it inverts, and the variate that it generates for each must
+ * be the exact quantile of u. The tails that it never generates must have a total probability less
+ * than the resolution of a random double.
+ *
+ * <p>This is not an experiment. It prints each failed check, and exits with a nonzero status if
+ * any check fails.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class ReferenceModelCheck {
+
+  /** Bit lengths of the checks, which straddle the boundaries of 32-bit and 64-bit words. */
+  private static final int[] LENGTHS = {1, 2, 3, 31, 32, 33, 63, 64, 65, 100, 1024, 1031};
+
+  /** Number of members of the populations. */
+  private static final int SIZE = 5;
+
+  /** Number of random bit operations per population. */
+  private static final int OPERATIONS = 2000;
+
+  /** Number of calls of a randomized operator per check. */
+  private static final int CALLS = 20000;
+
+  /** Number of standard deviations from its expected value at which a frequency fails. */
+  private static final double SIGMAS = 6.0;
+
+  /** The parameters n and p of the checked binomial distributions. */
+  private static final double[][] BINOMIALS = {
+    {0, 0.5},
+    {1, 0.5},
+    {10, 0.0},
+    {10, 1.0},
+    {10, 0.3},
+    {31, 1.0 / 31},
+    {100, 0.5},
+    {1000, 0.001},
+    {1000, 0.999},
+    {2000, 0.9},
+    {1 << 20, 1.0 / (1 << 20)},
+    {1 << 20, 0.01},
+    {1 << 20, 0.5}
+  };
+
+  /** Number of evenly spaced values of u at which each binomial distribution is inverted. */
+  private static final int GRID = 100000;
+
+  /** Largest difference of a CDF from the exact CDF at which a generated variate is accepted. */
+  private static final double TOLERANCE = 1E-12;
+
+  /** Resolution of a random double, 2<sup>-53</sup>. */
+  private static final double RESOLUTION = 0x1.0p-53;
+
+  /** Number of failed checks. */
+  private static int failures;
+
+  /**
+   * Runs the checks.
+   *
+   * @param args no command line arguments
+   * @throws IOException if the temporary file of the memory-mapped population cannot be created
+   */
+  public static void main(String[] args) throws IOException {
+    for (int n : LENGTHS) {
+      check(new PopulationArena(SIZE, n), "PopulationArena");
+      check(OffHeapPopulation.allocateDirect(SIZE, n), "OffHeapPopulation (direct)");
+      Path file = Files.createTempFile("population", ".bin");
+      file.toFile().deleteOnExit();
+      check(OffHeapPopulation.map(file, SIZE, n), "OffHeapPopulation (mapped)");
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        // still deleted on exit
+      }
+    }
+    for (double[] binomial : BINOMIALS) {
+      checkBinomial((int) binomial[0], binomial[1]);
+    }
+    System.out.println(failures == 0 ? "All checks passed" : failures + " checks failed");
+    if (failures > 0) {
+      System.exit(1);
+    }
+  }
+
+  /*
+   * Checks the bit operations of a population, and the operators on it.
+   */
+  private static <P extends BitPopulation<P>> void check(P population, String storage) {
+    String name = storage + " n=" + population.length();
+    checkOperations(population, name);
+    checkOperators(population, name);
+  }
+
+  /*
+   * Runs a random sequence of bit operations on a population and on the reference model, and
+   * compares them after each operation.
+   */
+  private static <P extends BitPopulation<P>> void checkOperations(P population, String name) {
+    int n = population.length();
+    SplittableRandom r = new SplittableRandom(n);
+    population.randomize();
+    BitVector[] reference = new BitVector[SIZE];
+    for (int member = 0; member < SIZE; member++) {
+      reference[member] = new BitVector(n);
+      for (int i = 0; i < n; i++) {
+        if (population.getBit(member, i) == 1) {
+          reference[member].flip(i);
+        }
+      }
+    }
+    if (!matches(population, reference, name + " randomize")) {
+      return;
+    }
+    for (int op = 0; op < OPERATIONS; op++) {
+      int a = r.nextInt(SIZE);
+      int b = (a + 1 + r.nextInt(SIZE - 1)) % SIZE;
+      String what;
+      switch (r.nextInt(4)) {
+        case 0:
+          int index = r.nextInt(n);
+          population.flip(a, index);
+          reference[a].flip(index);
+          what = "flip";
+          break;
+        case 1:
+          population.copy(a, population, b);
+          reference[b] = reference[a].copy();
+          what = "copy";
+          break;
+        case 2:
+          // random bits beyond the length of the members must not be exchanged into them
+          int[] mask = new int[(n + 31) >> 5];
+          for (int i = 0; i < mask.length; i++) {
+            mask[i] = r.nextInt();
+          }
+          population.exchangeBits(a, b, mask);
+          for (int i = 0; i < n; i++) {
+            if (((mask[i >> 5] >>> (i & 31)) & 1) == 1) {
+              exchange(reference[a], reference[b], i);
+            }
+          }
+          what = "exchangeBits(mask)";
+          break;
+        default:
+          int first = r.nextInt(n);
+          int last = r.nextInt(first, n);
+          population.exchangeBits(a, b, first, last);
+          for (int i = first; i <= last; i++) {
+            exchange(reference[a], reference[b], i);
+          }
+          what = "exchangeBits(" + first + ", " + last + ")";
+      }
+      if (!matches(population, reference, name + " " + what)) {
+        return;
+      }
+    }
+  }
+
+  /*
+   * Checks ArenaBitFlipMutation and the ArenaCrossover operators on a population.
+   */
+  private static void checkOperators(BitPopulation<?> population, String name) {
+    int n = population.length();
+    for (double m : new double[] {0.5 / n, 2.0 / n, 0.25}) {
+      if (m < 1) {
+        double[] expected = new double[n];
+        Arrays.fill(expected, m);
+        ArenaBitFlipMutation mutation = new ArenaBitFlipMutation(m);
+        checkFrequencies(
+            population,
+            expected,
+            false,
+            name + " mutation m=" + m,
+            () -> mutation.mutate(population, 1));
+      }
+    }
+    for (double u : new double[] {0.1, 0.5, 0.9}) {
+      double[] expected = new double[n];
+      Arrays.fill(expected, u);
+      ArenaCrossover crossover = new ArenaCrossover.Uniform(u);
+      checkFrequencies(
+          population,
+          expected,
+          true,
+          name + " uniform crossover u=" + u,
+          () -> crossover.cross(population, 0, 1));
+    }
+    if (n >= 2) {
+      // the bits before a cross point from 1 to n-1 are exchanged
+      double[] expected = new double[n];
+      for (int i = 0; i < n; i++) {
+        expected[i] = (n - 1 - i) / (double) (n - 1);
+      }
+      ArenaCrossover crossover = new ArenaCrossover.SinglePoint();
+      checkFrequencies(
+          population,
+          expected,
+          true,
+          name + " single-point",
+          () -> crossover.cross(population, 0, 1));
+    }
+    if (n >= 3) {
+      // the bits from i to j-1 are exchanged, for a pair of cross points 1 <= i < j <= n-1
+      double pairs = (n - 1) * (n - 2) / 2.0;
+      double[] expected = new double[n];
+      for (int i = 0; i < n; i++) {
+        expected[i] = i * (n - 1 - i) / pairs;
+      }
+      ArenaCrossover crossover = new ArenaCrossover.TwoPoint();
+      checkFrequencies(
+          population, expected, true, name + " two-point", () -> crossover.cross(population, 0, 1));
+    }
+  }
+
+  /*
+   * Calls an operator that modifies member 1, or that crosses members 0 and 1, many times, and
+   * compares the frequency with which each bit changes to its expected probability. For crossover,
+   * member 1 is set to the complement of member 0 before each call, so that every exchanged bit
+   * changes, and the two members must remain complements. All other members must be unchanged.
+   */
+  private static void checkFrequencies(
+      BitPopulation<?> population,
+      double[] expected,
+      boolean crossover,
+      String name,
+      Runnable operator) {
+    int n = expected.length;
+    int[] changes = new int[n];
+    for (int call = 0; call < CALLS; call++) {
+      population.randomize();
+      if (crossover) {
+        for (int i = 0; i < n; i++) {
+          if (population.getBit(0, i) == population.getBit(1, i)) {
+            population.flip(1, i);
+          }
+        }
+      }
+      BitVector[] before = new BitVector[SIZE];
+      for (int member = 0; member < SIZE; member++) {
+        before[member] = population.toBitVector(member);
+      }
+      operator.run();
+      BitVector[] after = new BitVector[SIZE];
+      for (int member = 0; member < SIZE; member++) {
+        after[member] = population.toBitVector(member);
+        if (member > 1 || (member == 0 && !crossover)) {
+          if (!after[member].equals(before[member])) {
+            fail(name + ": changed member " + member);
+            return;
+          }
+        }
+      }
+      int changed = crossover ? 0 : 1;
+      for (int i = 0; i < n; i++) {
+        if (after[changed].getBit(i) != before[changed].getBit(i)) {
+          changes[i]++;
+        }
+        if (crossover && after[0].getBit(i) == after[1].getBit(i)) {
+          fail(name + ": children are not complements at bit " + i);
+          return;
+        }
+      }
+      if (!matches(population, after, name)) {
+        return;
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      double p = expected[i];
+      double sigma = Math.sqrt(p * (1 - p) / CALLS);
+      double frequency = changes[i] / (double) CALLS;
+      // a probability of 0 or 1 must be met exactly
+      if (Math.abs(frequency - p) > Math.max(SIGMAS * sigma, 1E-12)) {
+        fail(name + ": bit " + i + " changed with frequency " + frequency + ", expected " + p);
+        return;
+      }
+    }
+  }
+
+  /*
+   * Checks the variates of a BinomialSampler, generated from chosen values of u, against the
+   * quantiles of the exact binomial distribution.
+   */
+  private static void checkBinomial(int n, double p) {
+    String name = "BinomialSampler n=" + n + " p=" + p;
+    BinomialSampler sampler = new BinomialSampler(n, p);
+    if (p == 0.0 || p == 1.0) {
+      int expected = p == 0.0 ? 0 : n;
+      for (double u : new double[] {0.0, 0.5, Math.nextDown(1.0)}) {
+        if (sample(sampler, u) != expected) {
+          fail(name + ": generated " + sample(sampler, u) + " for u=" + u);
+          return;
+        }
+      }
+      return;
+    }
+    double[] pmf = exactBinomial(n, p);
+    double[] cdf = new double[n + 1];
+    double sum = 0;
+    double compensation = 0;
+    for (int k = 0; k <= n; k++) {
+      double y = pmf[k] - compensation;
+      double t = sum + y;
+      compensation = (t - sum) - y;
+      sum = t;
+      cdf[k] = sum;
+    }
+    // every value with a probability well above the tolerance must be generated from the middle
+    // of its interval of u, which reaches every entry of the guide table
+    for (int k = 0; k <= n; k++) {
+      if (pmf[k] > 4 * TOLERANCE) {
+        double u = (k > 0 ? cdf[k - 1] : 0.0) + pmf[k] / 2;
+        if (sample(sampler, u) != k) {
+          fail(name + ": generated " + sample(sampler, u) + " for u=" + u + ", expected " + k);
+          return;
+        }
+      }
+    }
+    for (int g = 0; g < GRID; g++) {
+      double u = (double) g / GRID;
+      if (!isQuantile(cdf, sample(sampler, u), u)) {
+        fail(name + ": generated " + sample(sampler, u) + " for u=" + u);
+        return;
+      }
+    }
+    // the truncated tails, which nothing generates, must be less likely than any one random double
+    int min = sample(sampler, 0.0);
+    int max = sample(sampler, Math.nextDown(1.0));
+    if (!isQuantile(cdf, min, 0.0) || !isQuantile(cdf, max, Math.nextDown(1.0))) {
+      fail(name + ": generated " + min + " for u=0 and " + max + " for u=1-" + RESOLUTION);
+      return;
+    }
+    double lowerTail = 0;
+    for (int k = min - 1; k >= 0; k--) {
+      lowerTail += pmf[k];
+    }
+    double upperTail = 0;
+    for (int k = max + 1; k <= n; k++) {
+      upperTail += pmf[k];
+    }
+    if (lowerTail >= RESOLUTION || upperTail >= RESOLUTION) {
+      fail(name + ": truncated tails have probabilities " + lowerTail + " and " + upperTail);
+    }
+  }
+
+  /*
+   * Checks whether k is the smallest value whose CDF exceeds u, within the tolerance.
+   */
+  private static boolean isQuantile(double[] cdf, int k, double u) {
+    return k >= 0
+        && k < cdf.length
+        && cdf[k] > u - TOLERANCE
+        && (k == 0 || cdf[k - 1] <= u + TOLERANCE);
+  }
+
+  /*
+   * Generates a variate from a BinomialSampler with u in place of its random double.
+   */
+  private static int sample(BinomialSampler sampler, double u) {
+    return sampler.next(
+        new RandomGenerator() {
+          @Override
+          public long nextLong() {
+            throw new UnsupportedOperationException();
+          }
+
+          @Override
+          public double nextDouble() {
+            return u;
+          }
+        });
+  }
+
+  /*
+   * Computes the probabilities of the binomial distribution, over all values from 0 to n without
+   * truncation, from logarithms of the ratios of consecutive probabilities relative to the mode,
+   * and normalized with a compensated sum.
+   */
+  private static double[] exactBinomial(int n, double p) {
+    int mode = (int) Math.min(n, Math.floor((n + 1) * p));
+    double logOdds = Math.log(p) - Math.log1p(-p);
+    double[] log = new double[n + 1];
+    for (int k = mode + 1; k <= n; k++) {
+      log[k] = log[k - 1] + Math.log((n - k + 1) / (double) k) + logOdds;
+    }
+    for (int k = mode - 1; k >= 0; k--) {
+      log[k] = log[k + 1] + Math.log((k + 1) / (double) (n - k)) - logOdds;
+    }
+    double[] pmf = new double[n + 1];
+    double total = 0;
+    double compensation = 0;
+    for (int k = 0; k <= n; k++) {
+      pmf[k] = Math.exp(log[k]);
+      double y = pmf[k] - compensation;
+      double t = total + y;
+      compensation = (t - total) - y;
+      total = t;
+    }
+    for (int k = 0; k <= n; k++) {
+      pmf[k] /= total;
+    }
+    return pmf;
+  }
+
+  /*
+   * Exchanges a bit between two BitVectors.
+   */
+  private static void exchange(BitVector a, BitVector b, int i) {
+    if (a.getBit(i) != b.getBit(i)) {
+      a.flip(i);
+      b.flip(i);
+    }
+  }
+
+  /*
+   * Compares every member of a population to the reference model, bit by bit, and also through
+   * countOnes and toBitVector. Counting the 1-bits word by word also detects any 1-bits beyond the
+   * length of a member.
+   */
+  private static boolean matches(BitPopulation<?> population, BitVector[] reference, String what) {
+    for (int member = 0; member < SIZE; member++) {
+      for (int i = 0; i < population.length(); i++) {
+        if (population.getBit(member, i) != reference[member].getBit(i)) {
+          fail(what + ": member " + member + " differs at bit " + i);
+          return false;
+        }
+      }
+      if (population.countOnes(member) != reference[member].countOnes()) {
+        fail(what + ": member " + member + " has 1-bits beyond its length");
+        return false;
+      }
+      if (!population.toBitVector(member).equals(reference[member])) {
+        fail(what + ": toBitVector of member " + member + " differs");
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * Records and prints a failed check.
+   */
+  private static void fail(String message) {
+    failures++;
+    System.out.println("FAILED: " + message);
+  }
+}
@@ -0,0 +1,266 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import org.cicirello.math.stats.Statistics;
+import org.cicirello.search.evo.FitnessProportionalSelection;
+import org.cicirello.search.evo.PopulationFitnessVector;
+import org.cicirello.search.evo.SelectionOperator;
+import org.cicirello.search.evo.StochasticUniversalSampling;
+import org.cicirello.search.evo.TournamentSelection;
+import org.cicirello.search.evo.TruncationSelection;
+
+/**
+ * Experiment comparing CPU time of selection operators, which every GA of the other experiments
+ * runs once per generation over the whole population, but which none of them measures. It covers
+ * Chips-n-Salsa's StochasticUniversalSampling, FitnessProportionalSelection (roulette wheel),
+ * TournamentSelection (tournaments of size 2), and TruncationSelection (from the better half of
+ * the population), along with {@link BatchedTournamentSelection}, which draws the contestants of
+ * all of the tournaments in one batch. Each operator selects a full population from a fixed random
+ * PopulationFitnessVector, of both the Integer and Double types, at population sizes from 100 to
+ * 100000. The number of selections per trial is scaled inversely with population size so that
+ * each trial selects the same number of members.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class SelectionExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of members selected (population size times selections) for each trial. */
+  private static final int MEMBERS_PER_TRIAL = 1000000;
+
+  /** Size of the tournaments of both versions of tournament selection. */
+  private static final int TOURNAMENT_SIZE = 2;
+
+  /** Largest fitness value of the random fitness vectors. */
+  private static final int MAX_FITNESS = 1000;
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    int useToPreventOptimizingAway = 0;
+
+    int[] populationSizes = {100, 1000, 10000, 100000};
+    String[] types = {"int", "double"};
+
+    // NEED TO WARM UP JIT HERE.
+    System.out.println("Warming up the Java JIT");
+    for (int populationSize : populationSizes) {
+      for (int type = 0; type < types.length; type++) {
+        for (ParallelTrialRunner.Trial trial :
+            variants(populationSize, type == 1, MEMBERS_PER_TRIAL / populationSize).get()) {
+          useToPreventOptimizingAway += trial.run();
+        }
+      }
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+
+    System.out.printf(
+        "%6s\t%6s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+        "P",
+        "type",
+        "sus",
+        "roulette",
+        "tournament",
+        "batched",
+        "truncation",
+        "t",
+        "dof",
+        "p",
+        "sus-ns",
+        "rou-ns",
+        "tour-ns",
+        "bat-ns",
+        "tru-ns",
+        "samples",
+        "sus-MB",
+        "rou-MB",
+        "tour-MB",
+        "bat-MB",
+        "tru-MB",
+        "sus-gc",
+        "rou-gc",
+        "tour-gc",
+        "bat-gc",
+        "tru-gc",
+        "sus-gcms",
+        "rou-gcms",
+        "tour-gcms",
+        "bat-gcms",
+        "tru-gcms");
+    for (int populationSize : populationSizes) {
+      int samples = MEMBERS_PER_TRIAL / populationSize;
+      for (int type = 0; type < types.length; type++) {
+        ParallelTrialRunner.Results results =
+            runner.run(TRIALS, variants(populationSize, type == 1, samples));
+        double[][] ms = results.times();
+        useToPreventOptimizingAway += results.sum();
+
+        Number[] tTest = Statistics.tTestWelch(ms[2], ms[3]);
+        double t = tTest[0].doubleValue();
+        int dof = tTest[1].intValue();
+        double p = Statistics.p(t, dof);
+
+        // times are converted to seconds during output, and to nanoseconds per selected member
+        double[] seconds = new double[ms.length];
+        double[] nanosPerMember = new double[ms.length];
+        for (int v = 0; v < ms.length; v++) {
+          double nanos = Statistics.mean(ms[v]);
+          seconds[v] = nanos / 1000000000.0;
+          nanosPerMember[v] = nanos / ((double) samples * populationSize);
+        }
+
+        System.out.printf(
+            "%6d\t%6s\t%12.3g\t%12.3g\t%12.3g\t%12.3g\t%12.3g\t%10.4f\t%10d\t%10.3g\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10d\t%12.3f\t%12.3f\t%12.3f\t%12.3f\t%12.3f\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f\t%10.1f\t%10.1f%n",
+            populationSize,
+            types[type],
+            seconds[0],
+            seconds[1],
+            seconds[2],
+            seconds[3],
+            seconds[4],
+            t,
+            dof,
+            p,
+            nanosPerMember[0],
+            nanosPerMember[1],
+            nanosPerMember[2],
+            nanosPerMember[3],
+            nanosPerMember[4],
+            samples,
+            Statistics.mean(results.bytes()[0]) / 1000000.0,
+            Statistics.mean(results.bytes()[1]) / 1000000.0,
+            Statistics.mean(results.bytes()[2]) / 1000000.0,
+            Statistics.mean(results.bytes()[3]) / 1000000.0,
+            Statistics.mean(results.bytes()[4]) / 1000000.0,
+            Statistics.mean(results.gcCounts()[0]),
+            Statistics.mean(results.gcCounts()[1]),
+            Statistics.mean(results.gcCounts()[2]),
+            Statistics.mean(results.gcCounts()[3]),
+            Statistics.mean(results.gcCounts()[4]),
+            Statistics.mean(results.gcTimes()[0]),
+            Statistics.mean(results.gcTimes()[1]),
+            Statistics.mean(results.gcTimes()[2]),
+            Statistics.mean(results.gcTimes()[3]),
+            Statistics.mean(results.gcTimes()[4]));
+      }
+    }
+
+    System.out.println();
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) The t-test compares the library's tournament selection (tournament)");
+    System.out.println("   to the version that draws all contestants in one batch (batched).");
+    System.out.println("2) Negative t value implies the library's tournament selection is faster.");
+    System.out.println("3) Positive t value implies the batched version is faster.");
+    System.out.println("4) The p column is, well, the p value.");
+    System.out.println("5) The ns columns are the CPU time per selected member in nanoseconds.");
+    System.out.println("6) Samples is the number of selections of a full population per trial.");
+    System.out.println("7) The -MB columns are the memory allocated per trial.");
+    ParallelTrialRunner.printGcLegend(8);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+
+  /*
+   * Creates the setup function of the selection operators, in the order of the columns of the
+   * output, for a population of the given size with random fitness values of the given type.
+   */
+  private static Supplier<ParallelTrialRunner.Trial[]> variants(
+      int populationSize, boolean useDouble, int samples) {
+    // the fitness values are read-only, so are shared by all threads
+    SplittableRandom r = new SplittableRandom(populationSize);
+    int[] intFitness = new int[populationSize];
+    double[] doubleFitness = new double[populationSize];
+    for (int i = 0; i < populationSize; i++) {
+      intFitness[i] = r.nextInt(1, MAX_FITNESS + 1);
+      doubleFitness[i] = r.nextDouble(1.0, MAX_FITNESS);
+    }
+    PopulationFitnessVector.Integer intVector =
+        new PopulationFitnessVector.Integer() {
+          @Override
+          public int getFitness(int i) {
+            return intFitness[i];
+          }
+
+          @Override
+          public int size() {
+            return intFitness.length;
+          }
+        };
+    PopulationFitnessVector.Double doubleVector =
+        new PopulationFitnessVector.Double() {
+          @Override
+          public double getFitness(int i) {
+            return doubleFitness[i];
+          }
+
+          @Override
+          public int size() {
+            return doubleFitness.length;
+          }
+        };
+    return () -> {
+      // each thread needs its own operators, since operators are not thread-safe
+      SelectionOperator[] operators = {
+        new StochasticUniversalSampling(),
+        new FitnessProportionalSelection(),
+        new TournamentSelection(TOURNAMENT_SIZE),
+        new BatchedTournamentSelection(TOURNAMENT_SIZE),
+        new TruncationSelection(populationSize / 2)
+      };
+      ParallelTrialRunner.Trial[] trials = new ParallelTrialRunner.Trial[operators.length];
+      for (int v = 0; v < operators.length; v++) {
+        SelectionOperator selection = operators[v];
+        int[] selected = new int[populationSize];
+        trials[v] =
+            useDouble
+                ? () -> {
+                  int sum = 0;
+                  for (int s = 0; s < samples; s++) {
+                    selection.select(doubleVector, selected);
+                    sum += selected[s % populationSize];
+                  }
+                  return sum;
+                }
+                : () -> {
+                  int sum = 0;
+                  for (int s = 0; s < samples; s++) {
+                    selection.select(intVector, selected);
+                    sum += selected[s % populationSize];
+                  }
+                  return sum;
+                };
+      }
+      return trials;
+    };
+  }
+}
@@ -0,0 +1,420 @@
+/*
+ * Experiments related to optimizing genetic algorithm operators.
+ * Copyright (C) 2023-2024 Vincent A. Cicirello
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package org.cicirello.experiments.gaops;
+
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.cicirello.search.representations.BitVector;
+
+/**
+ * Experiment comparing CPU time of scalar and SIMD implementations of the word loops that remain in
+ * the hot path of a GA once the binomial distribution eliminates the per-bit random draws: the
+ * exchange of bits under a mask at the end of uniform crossover, and counting the one bits of each
+ * member of a population, which is the OneMax fitness function. Each is timed three ways: with the
+ * {@link BitVector} methods (exchangeBits and countOnes), with scalar loops over bits stored in
+ * 64-bit words, and with the same loops written with the incubating Vector API (<code>
+ * jdk.incubator.vector</code>) so that each instruction processes several words.
+ *
+ * <p>Since it depends on an incubator module, this experiment is only compiled when building with
+ * the <code>vector</code> profile (i.e., <code>mvn clean package -Pvector</code>), and running it
+ * requires the option <code>--add-modules jdk.incubator.vector</code>. The Vector API of Java 17
+ * has no lane-wise bit count operation, so the SIMD bit count uses the usual SWAR (SIMD within a
+ * register) bit count, accumulating the bit counts of the bytes across several vectors before
+ * summing them.
+ *
+ * @author <a href=https://www.cicirello.org/ target=_top>Vincent A. Cicirello</a>, <a
+ *     href=https://www.cicirello.org/ target=_top>https://www.cicirello.org/</a>
+ */
+public class VectorBitOperationsExperiment {
+
+  /** Number of trials to average. */
+  private static final int TRIALS = 100;
+
+  /** Number of crossovers for each trial. Need multiple to ensure times are measurable. */
+  private static final int SAMPLES_PER_TRIAL = 100000;
+
+  /** Number of times to count the bits of the population for each trial. */
+  private static final int POPULATION_SAMPLES_PER_TRIAL = 1000;
+
+  /** Number of members of the population. */
+  private static final int POPULATION_SIZE = 100;
+
+  /** The preferred vector shape of the platform. */
+  private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+  /**
+   * Maximum number of vectors of byte bit counts that can be added without overflowing a byte,
+   * since each byte has at most 8 one bits.
+   */
+  private static final int MAX_BYTE_SUMS = 31;
+
+  /**
+   * Exchanges the bits of two bit strings under a mask, with scalar operations.
+   *
+   * @param c1 the words of one bit string
+   * @param c2 the words of the other bit string
+   * @param mask the words of a mask, whose one bits are the bits to exchange
+   */
+  public static void exchangeBits(long[] c1, long[] c2, long[] mask) {
+    for (int i = 0; i < mask.length; i++) {
+      long diff = (c1[i] ^ c2[i]) & mask[i];
+      c1[i] ^= diff;
+      c2[i] ^= diff;
+    }
+  }
+
+  /**
+   * Exchanges the bits of two bit strings under a mask, with vector operations.
+   *
+   * @param c1 the words of one bit string
+   * @param c2 the words of the other bit string
+   * @param mask the words of a mask, whose one bits are the bits to exchange
+   */
+  public static void exchangeBitsVector(long[] c1, long[] c2, long[] mask) {
+    int bound = SPECIES.loopBound(mask.length);
+    int i = 0;
+    for (; i < bound; i += SPECIES.length()) {
+      LongVector v1 = LongVector.fromArray(SPECIES, c1, i);
+      LongVector v2 = LongVector.fromArray(SPECIES, c2, i);
+      LongVector m = LongVector.fromArray(SPECIES, mask, i);
+      LongVector diff = v1.lanewise(VectorOperators.XOR, v2).and(m);
+      v1.lanewise(VectorOperators.XOR, diff).intoArray(c1, i);
+      v2.lanewise(VectorOperators.XOR, diff).intoArray(c2, i);
+    }
+    for (; i < mask.length; i++) {
+      long diff = (c1[i] ^ c2[i]) & mask[i];
+      c1[i] ^= diff;
+      c2[i] ^= diff;
+    }
+  }
+
+  /**
+   * Counts the one bits of each member of a population, with scalar operations.
+   *
+   * @param population the words of the population, with the words of each member contiguous
+   * @param words the number of words of each member
+   * @param counts an array for the counts of the members
+   */
+  public static void countOnes(long[] population, int words, int[] counts) {
+    for (int member = 0, start = 0; member < counts.length; member++, start += words) {
+      int count = 0;
+      for (int i = start; i < start + words; i++) {
+        count += Long.bitCount(population[i]);
+      }
+      counts[member] = count;
+    }
+  }
+
+  /**
+   * Counts the one bits of each member of a population, with vector operations.
+   *
+   * @param population the words of the population, with the words of each member contiguous
+   * @param words the number of words of each member
+   * @param counts an array for the counts of the members
+   */
+  public static void countOnesVector(long[] population, int words, int[] counts) {
+    int bound = SPECIES.loopBound(words);
+    for (int member = 0, start = 0; member < counts.length; member++, start += words) {
+      long count = 0;
+      LongVector byteSums = LongVector.zero(SPECIES);
+      int pending = 0;
+      int i = start;
+      for (; i < start + bound; i += SPECIES.length()) {
+        byteSums = byteSums.add(byteCounts(LongVector.fromArray(SPECIES, population, i)));
+        pending++;
+        if (pending == MAX_BYTE_SUMS) {
+          count += sumBytes(byteSums);
+          byteSums = LongVector.zero(SPECIES);
+          pending = 0;
+        }
+      }
+      count += sumBytes(byteSums);
+      for (; i < start + words; i++) {
+        count += Long.bitCount(population[i]);
+      }
+      counts[member] = (int) count;
+    }
+  }
+
+  /*
+   * Counts the one bits of each byte of each lane.
+   */
+  private static LongVector byteCounts(LongVector x) {
+    x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+    x =
+        x.and(0x3333333333333333L)
+            .add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+    return x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0f0f0f0f0f0f0f0fL);
+  }
+
+  /*
+   * Sums the bytes of all lanes, where each byte is at most 8 * MAX_BYTE_SUMS.
+   */
+  private static long sumBytes(LongVector x) {
+    x =
+        x.and(0x00ff00ff00ff00ffL)
+            .add(x.lanewise(VectorOperators.LSHR, 8).and(0x00ff00ff00ff00ffL));
+    x =
+        x.and(0x0000ffff0000ffffL)
+            .add(x.lanewise(VectorOperators.LSHR, 16).and(0x0000ffff0000ffffL));
+    x = x.and(0xffffffffL).add(x.lanewise(VectorOperators.LSHR, 32));
+    return x.reduceLanes(VectorOperators.ADD);
+  }
+
+  /*
+   * Generates the words of a random bit string.
+   */
+  private static long[] randomWords(int words) {
+    long[] bits = new long[words];
+    for (int i = 0; i < words; i++) {
+      bits[i] = RandomSource.current().nextLong();
+    }
+    return bits;
+  }
+
+  /*
+   * Creates a BitVector with the same bits as some words.
+   */
+  private static BitVector toBitVector(long[] bits, int from, int n) {
+    BitVector v = new BitVector(n);
+    for (int j = 0; j < (n + 31) >> 5; j++) {
+      long word = bits[from + (j >> 1)];
+      v.set32(j, (j & 1) == 0 ? (int) word : (int) (word >>> 32));
+    }
+    return v;
+  }
+
+  /*
+   * Creates the setup function for the exchange of bits under a mask for one bit length, where
+   * each of the variants crosses samples times.
+   */
+  private static Supplier<ParallelTrialRunner.Trial[]> exchangeVariants(int n, int samples) {
+    return () -> {
+      // each thread exchanges the bits of its own bit strings
+      int words = (n + 63) >> 6;
+      long[] mask = randomWords(words);
+      long[] c1 = randomWords(words);
+      long[] c2 = randomWords(words);
+      long[] d1 = c1.clone();
+      long[] d2 = c2.clone();
+      BitVector v1 = toBitVector(c1, 0, n);
+      BitVector v2 = toBitVector(c2, 0, n);
+      BitVector vMask = toBitVector(mask, 0, n);
+      int length32 = (n + 31) >> 5;
+      return new ParallelTrialRunner.Trial[] {
+        () -> {
+          int sink = 0;
+          for (int k = 0; k < samples; k++) {
+            BitVector.exchangeBits(v1, v2, vMask);
+            sink += v1.get32(k % length32);
+          }
+          return sink;
+        },
+        () -> {
+          int sink = 0;
+          for (int k = 0; k < samples; k++) {
+            exchangeBits(c1, c2, mask);
+            sink += (int) c1[k % words];
+          }
+          return sink;
+        },
+        () -> {
+          int sink = 0;
+          for (int k = 0; k < samples; k++) {
+            exchangeBitsVector(d1, d2, mask);
+            sink += (int) d1[k % words];
+          }
+          return sink;
+        }
+      };
+    };
+  }
+
+  /*
+   * Creates the setup function for counting the bits of a population for one bit length, where
+   * each of the variants counts the bits of the population samples times.
+   */
+  private static Supplier<ParallelTrialRunner.Trial[]> countVariants(int n, int samples) {
+    return () -> {
+      // each thread counts the bits of its own population
+      int words = (n + 63) >> 6;
+      long[] population = randomWords(POPULATION_SIZE * words);
+      if ((n & 63) != 0) {
+        for (int member = 1; member <= POPULATION_SIZE; member++) {
+          population[member * words - 1] &= (1L << (n & 63)) - 1;
+        }
+      }
+      BitVector[] vectors = new BitVector[POPULATION_SIZE];
+      for (int member = 0; member < POPULATION_SIZE; member++) {
+        vectors[member] = toBitVector(population, member * words, n);
+      }
+      int[] counts = new int[POPULATION_SIZE];
+      return new ParallelTrialRunner.Trial[] {
+        () -> {
+          int sink = 0;
+          for (int k = 0; k < samples; k++) {
+            for (int member = 0; member < POPULATION_SIZE; member++) {
+              counts[member] = vectors[member].countOnes();
+            }
+            sink += counts[k % POPULATION_SIZE];
+          }
+          return sink;
+        },
+        () -> {
+          int sink = 0;
+          for (int k = 0; k < samples; k++) {
+            countOnes(population, words, counts);
+            sink += counts[k % POPULATION_SIZE];
+          }
+          return sink;
+        },
+        () -> {
+          int sink = 0;
+          for (int k = 0; k < samples; k++) {
+            countOnesVector(population, words, counts);
+            sink += counts[k % POPULATION_SIZE];
+          }
+          return sink;
+        }
+      };
+    };
+  }
+
+  /*
+   * Runs one table of the experiment, with a row per bit length.
+   */
+  private static long runTable(
+      ParallelTrialRunner runner,
+      int samplesPerTrial,
+      BiFunction<Integer, Integer, Supplier<ParallelTrialRunner.Trial[]>> variants) {
+    System.out.printf(
+        "%7s\t%12s\t%12s\t%12s\t%11s\t%10s\t%10s\t%10s\t%10s\t%10s\t%12s\t%12s\t%12s\t%10s\t%10s\t%10s\t%10s\t%10s\t%10s%n",
+        "n",
+        "library",
+        "scalar",
+        "vector",
+        "%less-time",
+        "t-lib",
+        "p-lib",
+        "t-scalar",
+        "p-scalar",
+        "samples",
+        "lib-B",
+        "scalar-B",
+        "vector-B",
+        "lib-gc",
+        "scalar-gc",
+        "vector-gc",
+        "lib-gcms",
+        "scalar-gcms",
+        "vector-gcms");
+    long useToPreventOptimizingAway = 0;
+    for (int bitLength = BitLengthSweep.first();
+        bitLength <= BitLengthSweep.last();
+        bitLength *= 2) {
+      final int n = bitLength;
+      BitLengthSweep.Calibration sweep =
+          BitLengthSweep.calibrate(samplesPerTrial, n, samples -> variants.apply(n, samples));
+      ParallelTrialRunner.Results results = runner.run(TRIALS, sweep.setup());
+      double[][] ms = results.times();
+      useToPreventOptimizingAway += results.sum();
+      Number[] tTestLibrary = sweep.tTest(ms, 0, 2);
+      Number[] tTestScalar = sweep.tTest(ms, 1, 2);
+      // times are converted to seconds during output
+      double timeLibrarySeconds = sweep.seconds(ms, 0);
+      double timeScalarSeconds = sweep.seconds(ms, 1);
+      double timeVectorSeconds = sweep.seconds(ms, 2);
+      double percentLessTime = 100 * ((timeScalarSeconds - timeVectorSeconds) / timeScalarSeconds);
+      System.out.printf(
+          "%7d\t%12.3g\t%12.3g\t%12.3g\t%10.2f%%\t%10.4f\t%10.3g\t%10.4f\t%10.3g\t%10d\t%12.4g\t%12.4g\t%12.4g\t%10.3f\t%10.3f\t%10.3f\t%10.1f\t%10.1f\t%10.1f%n",
+          n,
+          timeLibrarySeconds,
+          timeScalarSeconds,
+          timeVectorSeconds,
+          percentLessTime,
+          tTestLibrary[0].doubleValue(),
+          tTestLibrary[2].doubleValue(),
+          tTestScalar[0].doubleValue(),
+          tTestScalar[2].doubleValue(),
+          sweep.samples(),
+          sweep.perSample(results.bytes(), 0),
+          sweep.perSample(results.bytes(), 1),
+          sweep.perSample(results.bytes(), 2),
+          sweep.perTrial(results.gcCounts(), 0),
+          sweep.perTrial(results.gcCounts(), 1),
+          sweep.perTrial(results.gcCounts(), 2),
+          sweep.perTrial(results.gcTimes(), 0),
+          sweep.perTrial(results.gcTimes(), 1),
+          sweep.perTrial(results.gcTimes(), 2));
+    }
+    System.out.println();
+    return useToPreventOptimizingAway;
+  }
+
+  /**
+   * Runs the experiment.
+   *
+   * @param args no command line arguments
+   */
+  public static void main(String[] args) {
+
+    ParallelTrialRunner runner = new ParallelTrialRunner();
+    long useToPreventOptimizingAway = 0;
+
+    // Attempt to "warm-up" Java's JIT compiler.
+    System.out.println("Warming up the Java JIT");
+    for (ParallelTrialRunner.Trial trial : exchangeVariants(1024, SAMPLES_PER_TRIAL).get()) {
+      useToPreventOptimizingAway += trial.run();
+    }
+    for (ParallelTrialRunner.Trial trial :
+        countVariants(1024, POPULATION_SAMPLES_PER_TRIAL).get()) {
+      useToPreventOptimizingAway += trial.run();
+    }
+    System.out.println("End Warmup Phase");
+    System.out.println();
+    System.out.println("Vector species: " + SPECIES);
+    System.out.println();
+
+    System.out.println("Exchange of bits under a mask");
+    useToPreventOptimizingAway +=
+        runTable(runner, SAMPLES_PER_TRIAL, VectorBitOperationsExperiment::exchangeVariants);
+    System.out.println("Counting the bits of a population of " + POPULATION_SIZE);
+    useToPreventOptimizingAway +=
+        runTable(
+            runner, POPULATION_SAMPLES_PER_TRIAL, VectorBitOperationsExperiment::countVariants);
+
+    System.out.println("Interpreting Above Results:");
+    System.out.println("1) The library columns use the BitVector methods, the scalar columns loop");
+    System.out.println("   over 64-bit words, and the vector columns use the Vector API.");
+    System.out.println("2) Positive t-lib (t-scalar) implies the vector version is faster than");
+    System.out.println("   the library (scalar) version. The p columns are the p values.");
+    System.out.println("3) The %less-time column compares the vector version to the scalar one.");
+    System.out.println("4) Times are per trial of samples repetitions, where samples is reduced");
+    System.out.println("   for n > 1024 (see the -DlargeN=true option of the other experiments).");
+    System.out.println("5) The -B columns are the bytes allocated per repetition.");
+    ParallelTrialRunner.printGcLegend(6);
+
+    System.out.println(
+        "\nOutput to ensure can't optimize away anything: " + useToPreventOptimizingAway);
+    runner.shutdown();
+  }
+}